@@ -0,0 +1,111 @@
+package com.striker.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.striker.auth.entity.LoginSession;
+import com.striker.auth.entity.UserProfile;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response bodies returned by the profile and session
+ * endpoints, per wire format. {@code entity} is the body the endpoints returned
+ * before they switched to view DTOs; {@code profile} and {@code sessions} are the
+ * current bodies (one profile, a page of 50 sessions). The encoded size of each
+ * combination is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"entity", "profile", "sessions"})
+    private String body;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = mapper(format);
+
+        UserProfile profile = new UserProfile();
+        profile.setUserId(UUID.randomUUID());
+        profile.setUsername("john.doe");
+        profile.setFullName("John Doe");
+        profile.setEmail("john.doe@example.com");
+        profile.setProfilePic("https://lh3.googleusercontent.com/a/ACg8ocJ-example=s96-c");
+        profile.setRole("USER");
+        profile.setStatus(true);
+        profile.setLastLogin("2025-10-03T18:22:41.123456");
+
+        response = switch (body) {
+            case "entity" -> ApiResponse.success(profile);
+            case "profile" -> ApiResponse.success(UserProfileViewDto.of(profile));
+            case "sessions" -> ApiResponse.success(new LoginSessionPageDto(sessions(50), "MjAyNS0xMC0wM1Q"));
+            default -> throw new IllegalArgumentException(body);
+        };
+
+        try {
+            System.out.printf("%n%s/%s: %d bytes%n", format, body, objectMapper.writeValueAsBytes(response).length);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * The mapper behind each MVC message converter: Spring Boot's defaults for JSON,
+     * plus {@code BinaryFormatConfig}'s settings for CBOR and Smile.
+     */
+    private static ObjectMapper mapper(String format) {
+        ObjectMapper mapper = switch (format) {
+            case "json" -> new ObjectMapper();
+            case "cbor" -> new ObjectMapper(new CBORFactory())
+                    .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+            case "smile" -> new ObjectMapper(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build())
+                    .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+            default -> throw new IllegalArgumentException(format);
+        };
+        return mapper.findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static List<LoginSessionViewDto> sessions(int count) {
+        LocalDateTime loginTime = LocalDateTime.of(2025, 10, 3, 18, 0);
+        List<LoginSessionViewDto> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LoginSession session = new LoginSession();
+            session.setSessionId(UUID.randomUUID());
+            session.setUserId(UUID.randomUUID());
+            session.setLoginTime(loginTime.plusSeconds(i * 37L));
+            session.setActive(true);
+            session.setPlaying(i % 3 == 0);
+            session.setLatitude("12.97" + i);
+            session.setLongitude("77.59" + i);
+            sessions.add(LoginSessionViewDto.of(session));
+        }
+        return sessions;
+    }
+}
@@ -0,0 +1,69 @@
+package com.striker.auth.id;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UUIDv7 against {@link UUID#randomUUID()}.
+ *
+ * The {@code generate*} benchmarks run on 8 threads to expose contention on the
+ * shared {@code SecureRandom}. The {@code insert*} benchmarks add each new key to
+ * a sorted index of 1M existing keys as a stand-in for a B-tree primary key:
+ * time-ordered keys always land at the right edge, random keys land anywhere.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private static final int INDEX_SIZE = 1_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Generators {
+        final UuidV7Generator uuidV7 = new UuidV7Generator();
+    }
+
+    @State(Scope.Thread)
+    public static class Index {
+        final UuidV7Generator uuidV7 = new UuidV7Generator();
+        TreeMap<UUID, Boolean> randomIndex;
+        TreeMap<UUID, Boolean> timeOrderedIndex;
+
+        @Setup(Level.Iteration)
+        public void fill() {
+            randomIndex = new TreeMap<>();
+            timeOrderedIndex = new TreeMap<>();
+            for (int i = 0; i < INDEX_SIZE; i++) {
+                randomIndex.put(UUID.randomUUID(), Boolean.TRUE);
+                timeOrderedIndex.put(uuidV7.next(), Boolean.TRUE);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID generateRandomUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID generateUuidV7(Generators generators) {
+        return generators.uuidV7.next();
+    }
+
+    @Benchmark
+    public Boolean insertRandomUuid(Index index) {
+        return index.randomIndex.put(UUID.randomUUID(), Boolean.TRUE);
+    }
+
+    @Benchmark
+    public Boolean insertUuidV7(Index index) {
+        return index.timeOrderedIndex.put(index.uuidV7.next(), Boolean.TRUE);
+    }
+}
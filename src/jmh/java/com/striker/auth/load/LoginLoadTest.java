@@ -0,0 +1,112 @@
+package com.striker.auth.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load against a running instance: {@code concurrency} clients each
+ * POST an empty JSON body to the login path, wait for the answer and go again,
+ * for {@code duration}. Prints throughput, latency percentiles and errors.
+ *
+ * Run the service once with and once without
+ * {@code spring.threads.virtual.enabled=true} and compare the two reports.
+ *
+ * Usage: {@code LoginLoadTest <baseUrl> <path> <concurrency> <duration>}, e.g.
+ * {@code http://localhost:8080 /api/v1/guest-login 200 PT30S}.
+ */
+public final class LoginLoadTest {
+
+    private LoginLoadTest() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length != 4) {
+            System.err.println("usage: LoginLoadTest <baseUrl> <path> <concurrency> <duration>");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0]).resolve(args[1]);
+        int concurrency = Integer.parseInt(args[2]);
+        Duration duration = Duration.parse(args[3]);
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+
+        AtomicLong errors = new AtomicLong();
+        List<long[]> perClient = new ArrayList<>(concurrency);
+        long deadline = System.nanoTime() + duration.toNanos();
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                Latencies latencies = new Latencies();
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - start);
+                    }
+                    synchronized (perClient) {
+                        perClient.add(latencies.toArray());
+                    }
+                    return null;
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%s  concurrency=%d  duration=%s%n", uri, concurrency, duration);
+        System.out.printf("requests=%d  errors=%d  throughput=%.1f req/s%n",
+                all.length, errors.get(), all.length / elapsedSeconds);
+        if (all.length > 0) {
+            System.out.printf("latency ms  p50=%.2f  p95=%.2f  p99=%.2f  max=%.2f%n",
+                    millis(all, 0.50), millis(all, 0.95), millis(all, 0.99), all[all.length - 1] / 1e6);
+        }
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Growable per-client buffer, so recording a sample never contends.
+     */
+    private static final class Latencies {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
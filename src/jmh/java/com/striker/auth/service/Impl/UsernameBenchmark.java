@@ -0,0 +1,72 @@
+package com.striker.auth.service.Impl;
+
+import com.striker.auth.repos.IUserProfileRepo;
+import com.striker.auth.service.UsernameAllocator;
+import com.striker.auth.support.RepoStubs;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Username derivation and {@code buildSafeMap} as run on every social login.
+ * Allocation runs on {@link UsernameAllocator} over an in-memory repository
+ * stub, so these numbers exclude DB latency; {@code generateUniqueUsername}
+ * measures the cold path (snapshot evicted, one prefix query per call).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsernameBenchmark {
+
+    /**
+     * How many suffixed variants of the base name are already taken.
+     */
+    @Param({"0", "10"})
+    public int takenVariants;
+
+    private UsernameAllocator allocator;
+    private UUID userId;
+
+    @Setup
+    public void setUp() {
+        // john.doe, john.doe_1, ... john.doe_(takenVariants - 1)
+        Integer maxTakenSuffix = takenVariants > 0 ? takenVariants - 1 : null;
+        IUserProfileRepo repo = RepoStubs.stub(IUserProfileRepo.class, Map.of(
+                "findMaxUsernameSuffix", args -> maxTakenSuffix
+        ));
+        allocator = new UsernameAllocator(repo, 10_000, Duration.ofSeconds(30));
+        userId = UUID.randomUUID();
+    }
+
+    @Benchmark
+    public String sanitizeUsername() {
+        return UserProfileServiceImpl.sanitizeUsername("  John   DOE!! ");
+    }
+
+    @Benchmark
+    public String generateUniqueUsername() {
+        String base = UserProfileServiceImpl.resolveUsernameBase(null, "john.doe@example.com", "John Doe");
+        String username = allocator.allocate(base);
+        allocator.release(username);
+        allocator.evict(base);
+        return username;
+    }
+
+    @Benchmark
+    public Map<String, Object> buildSafeMap() {
+        return UserProfileServiceImpl.buildSafeMap(
+                "userId", userId,
+                "email", "john.doe@example.com",
+                "fullName", "John Doe",
+                "username", "john.doe",
+                "jwt", "header.payload.signature",
+                "provider", "GOOGLE"
+        );
+    }
+}
@@ -0,0 +1,76 @@
+package com.striker.auth.service;
+
+import com.striker.auth.config.JwtKeyProperties;
+import com.striker.auth.dto.TokenClaimsDto;
+import com.striker.auth.entity.UserProfile;
+import com.striker.auth.id.UuidV7Generator;
+import com.striker.auth.security.JwtKeyRing;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"HS256", "ES256"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private UserProfile user;
+    private String sessionToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtKeyProperties.Key key = new JwtKeyProperties.Key();
+        key.setKid("bench");
+        key.setAlgorithm(algorithm);
+        if ("HS256".equals(algorithm)) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            key.setSecret(Base64.getEncoder().encodeToString(secret));
+        } else {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(256);
+            KeyPair pair = generator.generateKeyPair();
+            key.setPrivateKey(Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+            key.setPublicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+        }
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setKeys(List.of(key));
+
+        UuidV7Generator idGenerator = new UuidV7Generator();
+        // Revocations are only read here, so no repository is needed
+        TokenRevocationList revocationList = new TokenRevocationList(null, idGenerator,
+                Duration.ofMinutes(15), Duration.ofSeconds(10), 1 << 20, 4);
+        jwtService = new JwtService(new JwtKeyRing(properties), idGenerator, revocationList,
+                Duration.ofMinutes(15), 10_000, Duration.ofMinutes(5));
+        user = new UserProfile();
+        user.setUserId(UUID.randomUUID());
+        sessionToken = jwtService.generateAccessToken(user.getUserId(), "GOOGLE", UUID.randomUUID());
+    }
+
+    /**
+     * Cached verification: one cache lookup plus the Bloom-filter revocation check.
+     */
+    @Benchmark
+    public TokenClaimsDto verifyCachedToken() {
+        return jwtService.verify(sessionToken);
+    }
+
+    @Benchmark
+    public String generateTokenForUser() {
+        return jwtService.generateTokenForUser(user, "GOOGLE");
+    }
+}
@@ -0,0 +1,66 @@
+package com.striker.auth.service;
+
+import com.striker.auth.dto.NearbyPlayerDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearby-player queries against 200k located sessions clustered around one city,
+ * next to the full scan the matchmaking service used to do client-side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NearbyPlayersIndexBenchmark {
+
+    private static final int PLAYERS = 200_000;
+    private static final double CENTER_LAT = 12.97;
+    private static final double CENTER_LON = 77.59;
+
+    private NearbyPlayersIndex index;
+    private final List<double[]> points = new ArrayList<>();
+    private final Random random = new Random(7);
+
+    @Setup
+    public void setUp() {
+        index = new NearbyPlayersIndex(0.1, 500);
+        for (int i = 0; i < PLAYERS; i++) {
+            UUID userId = UUID.randomUUID();
+            double lat = CENTER_LAT + random.nextGaussian();
+            double lon = CENTER_LON + random.nextGaussian();
+            boolean playing = random.nextBoolean();
+            index.update(userId, userId, Double.toString(lat), Double.toString(lon), playing);
+            points.add(new double[]{lat, lon, playing ? 1 : 0});
+        }
+    }
+
+    @Benchmark
+    public List<NearbyPlayerDto> radius5Km() {
+        return index.withinRadius(CENTER_LAT + random.nextGaussian(), CENTER_LON, 5, true, null, 200);
+    }
+
+    @Benchmark
+    public List<NearbyPlayerDto> nearest10() {
+        return index.nearest(CENTER_LAT + random.nextGaussian(), CENTER_LON, 10, true, null);
+    }
+
+    @Benchmark
+    public int fullScan5Km() {
+        double lat = CENTER_LAT + random.nextGaussian();
+        int found = 0;
+        for (double[] point : points) {
+            if (point[2] == 0 && NearbyPlayersIndex.haversineKm(lat, CENTER_LON, point[0], point[1]) <= 5) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
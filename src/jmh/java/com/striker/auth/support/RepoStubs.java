@@ -0,0 +1,35 @@
+package com.striker.auth.support;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds in-memory stand-ins for Spring Data repositories so benchmarks measure
+ * service code rather than a database.
+ */
+public final class RepoStubs {
+
+    private RepoStubs() {
+    }
+
+    /**
+     * Returns a proxy of {@code repoType} that answers the named methods with the
+     * given handlers and throws for anything else.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> repoType, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(repoType.getClassLoader(), new Class<?>[]{repoType}, (proxy, method, args) -> {
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> repoType.getSimpleName() + "Stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+            };
+        });
+    }
+}
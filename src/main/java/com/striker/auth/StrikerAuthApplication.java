@@ -3,13 +3,18 @@ package com.striker.auth;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 @Slf4j
-@SpringBootApplication
+// R2DBC is wired by ReactiveDataConfig under the reactive profile only
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@ConfigurationPropertiesScan
 public class StrikerAuthApplication {
 
     public static void main(String[] args) {
@@ -20,6 +25,10 @@ public class StrikerAuthApplication {
     @EventListener
     public void getContextRefreshedEvent(ContextRefreshedEvent contextRefreshedEvent) {
         ApplicationContext applicationContext = contextRefreshedEvent.getApplicationContext();
+        // Absent in non-web contexts such as @DataJpaTest slices
+        if (!applicationContext.containsBean("requestMappingHandlerMapping")) {
+            return;
+        }
         var handlerMapping = applicationContext.getBean("requestMappingHandlerMapping",
                 RequestMappingHandlerMapping.class);
         handlerMapping.getHandlerMethods().forEach((key, value) -> log.info(String.valueOf(key)));
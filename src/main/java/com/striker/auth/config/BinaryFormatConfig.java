@@ -0,0 +1,73 @@
+package com.striker.auth.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * CBOR and Smile responses for clients that ask for them with {@code Accept}.
+ *
+ * The mappers start from Boot's {@link Jackson2ObjectMapperBuilder}, so they
+ * serialize the same fields as the JSON one, and leave null fields out. They also
+ * write {@link HttpStatus} as its numeric code (404) rather than the enum name
+ * ("NOT_FOUND"); clients opting into a binary format get that contract, JSON
+ * clients keep the name. JSON stays the default: these converters replace
+ * Spring's own CBOR and Smile converters, which sit after the JSON converter.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = builder.createXmlMapper(false)
+                .factory(new CBORFactory())
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build()
+                .registerModule(new StatusCodeModule());
+        return new MappingJackson2CborHttpMessageConverter(mapper);
+    }
+
+    /**
+     * Smile with shared string values, so repeated values such as role or
+     * provider are written once per response.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        ObjectMapper mapper = builder.createXmlMapper(false)
+                .factory(factory)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build()
+                .registerModule(new StatusCodeModule());
+        return new MappingJackson2SmileHttpMessageConverter(mapper);
+    }
+
+    static final class StatusCodeModule extends SimpleModule {
+
+        StatusCodeModule() {
+            addSerializer(HttpStatus.class, new StdSerializer<>(HttpStatus.class) {
+                @Override
+                public void serialize(HttpStatus status, JsonGenerator generator, SerializerProvider provider)
+                        throws IOException {
+                    generator.writeNumber(status.value());
+                }
+            });
+        }
+    }
+}
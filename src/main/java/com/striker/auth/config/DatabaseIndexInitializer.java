@@ -0,0 +1,48 @@
+package com.striker.auth.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates PostgreSQL indexes that JPA {@code @Index} cannot express (operator
+ * classes, partial indexes). Statements are idempotent and run after Hibernate
+ * has created the tables; failures are logged rather than blocking startup.
+ */
+@Slf4j
+@Component
+public class DatabaseIndexInitializer implements ApplicationRunner {
+
+    private static final List<String> STATEMENTS = List.of(
+            // Prefix scans for username allocation (LIKE 'base!_%')
+            "CREATE INDEX IF NOT EXISTS idx_user_profiles_username_prefix "
+                    + "ON user_profiles (username varchar_pattern_ops)",
+            // Keyset pagination and streaming of active sessions
+            "CREATE INDEX IF NOT EXISTS idx_login_session_active_keyset "
+                    + "ON login_session (login_time, session_id) WHERE is_active",
+            // Latest active session of a user
+            "CREATE INDEX IF NOT EXISTS idx_login_session_active_user "
+                    + "ON login_session (user_id, login_time DESC) WHERE is_active"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                log.warn("Could not apply index statement [{}]: {}", statement, e.getMessage());
+            }
+        }
+    }
+}
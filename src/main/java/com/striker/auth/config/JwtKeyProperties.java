@@ -0,0 +1,52 @@
+package com.striker.auth.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Signing keys for issued JWTs, bound from {@code striker.jwt.*}.
+ *
+ * Keys can come from any property source, including AWS Secrets Manager via
+ * {@code spring.config.import=aws-secretsmanager:<secret-name>}. Every node must
+ * see the same key set so tokens minted on one node verify on all others.
+ *
+ * <pre>
+ * striker.jwt.active-kid=2025-10
+ * striker.jwt.keys[0].kid=2025-10
+ * striker.jwt.keys[0].algorithm=ES256
+ * striker.jwt.keys[0].private-key=&lt;base64 PKCS#8 or PEM&gt;
+ * striker.jwt.keys[0].public-key=&lt;base64 X.509 or PEM&gt;
+ * striker.jwt.keys[1].kid=2025-07
+ * striker.jwt.keys[1].algorithm=HS256
+ * striker.jwt.keys[1].secret=&lt;base64, at least 32 bytes&gt;
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "striker.jwt")
+public class JwtKeyProperties {
+
+    /**
+     * Key id used to sign new tokens. Defaults to the first configured key.
+     */
+    private String activeKid;
+
+    /**
+     * Active and previous keys. Previous asymmetric keys only need a public key.
+     */
+    private List<Key> keys = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Key {
+        private String kid;
+        private String algorithm = "HS256"; // HS256, RS256 or ES256
+        private String secret;              // HS256 only
+        private String privateKey;          // RS256 / ES256, only needed for the active key
+        private String publicKey;           // RS256 / ES256
+    }
+}
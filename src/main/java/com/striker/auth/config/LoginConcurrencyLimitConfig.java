@@ -0,0 +1,78 @@
+package com.striker.auth.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.striker.auth.limit.AdaptiveConcurrencyLimit;
+import com.striker.auth.limit.ConcurrencyLimitFilter;
+import com.striker.auth.metrics.LoginMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Load shedding for the login endpoints. Social and guest login each get their
+ * own {@link AdaptiveConcurrencyLimit}, so a surge of one does not starve the
+ * other; both start from the same {@code striker.login.limit.*} settings. Set
+ * {@code striker.login.limit.enabled=false} to turn it off.
+ */
+@Configuration
+@ConditionalOnProperty(name = "striker.login.limit.enabled", matchIfMissing = true)
+public class LoginConcurrencyLimitConfig {
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final Duration sampleWindow;
+    private final int baselineWindows;
+    private final Duration retryAfter;
+
+    public LoginConcurrencyLimitConfig(MeterRegistry meterRegistry,
+                                       ObjectMapper objectMapper,
+                                       @Value("${striker.login.limit.initial:20}") int initialLimit,
+                                       @Value("${striker.login.limit.min:4}") int minLimit,
+                                       @Value("${striker.login.limit.max:200}") int maxLimit,
+                                       @Value("${striker.login.limit.sample-window:PT1S}") Duration sampleWindow,
+                                       @Value("${striker.login.limit.baseline-windows:600}") int baselineWindows,
+                                       @Value("${striker.login.limit.retry-after:PT1S}") Duration retryAfter) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.sampleWindow = sampleWindow;
+        this.baselineWindows = baselineWindows;
+        this.retryAfter = retryAfter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> socialLoginConcurrencyLimitFilter() {
+        return registration(LoginMetrics.SOCIAL, "/api/v1/userprofiles/social-login");
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> guestLoginConcurrencyLimitFilter() {
+        return registration(LoginMetrics.GUEST, "/api/v1/guest-login");
+    }
+
+    /**
+     * Ordered ahead of the request SQL metrics filter so shed requests cost nothing
+     * beyond the HTTP observation.
+     */
+    private FilterRegistrationBean<ConcurrencyLimitFilter> registration(String flow, String path) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                initialLimit, minLimit, maxLimit, sampleWindow, baselineWindows);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(flow, limit, retryAfter, meterRegistry, objectMapper));
+        registration.setName(flow + "LoginConcurrencyLimitFilter");
+        registration.addUrlPatterns(path);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,76 @@
+package com.striker.auth.config;
+
+import com.striker.auth.metrics.RequestSqlDataSource;
+import com.striker.auth.metrics.RequestSqlMetricsFilter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Per-request SQL metrics and latency histograms, scraped from
+ * {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Times connection checkouts and counts statements for {@link RequestSqlMetricsFilter},
+     * unless the data source already wraps a {@link RequestSqlDataSource}. Static so
+     * the post-processor is registered before the data source is created.
+     */
+    @Bean
+    public static BeanPostProcessor requestSqlDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !countsStatements(dataSource)
+                        ? new RequestSqlDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    private static boolean countsStatements(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(RequestSqlDataSource.class);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestSqlMetricsFilter> requestSqlMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestSqlMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestSqlMetricsFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    /**
+     * Percentile histograms for request latency and connection-pool wait.
+     */
+    @Bean
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().equals("http.server.requests") || id.getName().equals("hikaricp.connections.acquire")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
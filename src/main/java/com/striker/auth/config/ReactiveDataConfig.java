@@ -0,0 +1,61 @@
+package com.striker.auth.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * R2DBC connection pool for the {@code reactive} profile.
+ *
+ * Boot's R2DBC auto-configuration is excluded so the default profile never needs
+ * an R2DBC URL and JPA's transaction manager stays the only one in the context.
+ * The pool is deliberately not a bean: Boot skips the JDBC {@code DataSource}
+ * when a {@code ConnectionFactory} bean exists, and JPA still serves every other
+ * endpoint. Without {@code striker.r2dbc.url} the JDBC URL and credentials are reused.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveDataConfig implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveDataConfig(@Value("${striker.r2dbc.url:}") String url,
+                              @Value("${spring.datasource.url:}") String jdbcUrl,
+                              @Value("${spring.datasource.username:}") String username,
+                              @Value("${spring.datasource.password:}") String password,
+                              @Value("${striker.r2dbc.pool.max-size:20}") int maxSize,
+                              @Value("${striker.r2dbc.pool.max-idle-time:PT30M}") Duration maxIdleTime) {
+        String r2dbcUrl = url.isBlank() ? jdbcUrl.replaceFirst("^jdbc:", "r2dbc:") : url;
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate();
+        if (!username.isBlank()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (!password.isBlank()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .initialSize(Math.min(2, maxSize))
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,144 @@
+package com.striker.auth.config;
+
+import com.striker.auth.datasource.ReadFromReplica;
+import com.striker.auth.datasource.ReplicaReadInterceptor;
+import com.striker.auth.datasource.ReplicaRoutingDataSource;
+import com.striker.auth.metrics.RequestSqlDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in
+ * {@code striker.datasource.replica.urls} (comma separated). Credentials default to
+ * the primary's.
+ *
+ * Replaces Boot's data source with a {@link ReplicaRoutingDataSource} over a
+ * Hikari pool per server; the primary pool still takes {@code spring.datasource.*}
+ * and {@code spring.datasource.hikari.*}. Replicas are health-checked every
+ * {@code striker.datasource.replica.health-check-interval} and skipped while
+ * unreachable or more than {@code striker.datasource.replica.max-lag} behind.
+ * Their lag and state are published as {@code striker.datasource.replica.*}.
+ *
+ * With open-in-view the first connection of a request is kept until the request
+ * ends, so only requests that start with a {@link ReadFromReplica} read use a
+ * replica; the annotated methods are each the whole of a GET request.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "striker.datasource.replica", name = "urls")
+public class ReplicaDataSourceConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public ReplicaDataSourceConfig(ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                   DataSourceProperties dataSourceProperties,
+                                   Environment environment,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${striker.datasource.replica.urls}") List<String> urls,
+                                   @Value("${striker.datasource.replica.username:}") String username,
+                                   @Value("${striker.datasource.replica.password:}") String password,
+                                   @Value("${striker.datasource.replica.pool.max-size:10}") int maxPoolSize,
+                                   @Value("${striker.datasource.replica.connection-timeout:PT2S}") Duration connectionTimeout,
+                                   @Value("${striker.datasource.replica.max-lag:PT5S}") Duration maxLag) {
+        MicrometerMetricsTrackerFactory poolMetrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        HikariDataSource primary = new HikariDataSource();
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        if (details != null) {
+            primary.setJdbcUrl(details.getJdbcUrl());
+            primary.setUsername(details.getUsername());
+            primary.setPassword(details.getPassword());
+            primary.setDriverClassName(details.getDriverClassName());
+        } else {
+            primary.setJdbcUrl(dataSourceProperties.determineUrl());
+            primary.setUsername(dataSourceProperties.determineUsername());
+            primary.setPassword(dataSourceProperties.determinePassword());
+            primary.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        }
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setMetricsTrackerFactory(poolMetrics);
+        pools.add(primary);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username.isBlank() ? primary.getUsername() : username);
+            replica.setPassword(password.isBlank() ? primary.getPassword() : password);
+            replica.setMaximumPoolSize(maxPoolSize);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            // A replica that is down at startup is skipped, not fatal
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(poolMetrics);
+            pools.add(replica);
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, maxLag);
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            Gauge.builder("striker.datasource.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagSeconds)
+                    .description("Replication lag at the last health check, NaN if it failed")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("striker.datasource.replica.usable", replica, r -> r.isUsable() ? 1 : 0)
+                    .description("1 while reads are routed to the replica")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Statement counting sits under the lazy proxy so it still times the real
+     * checkout, not the proxy handed out at transaction start.
+     */
+    @Bean
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(new RequestSqlDataSource(routingDataSource));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor readFromReplicaAdvisor() {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, ReadFromReplica.class, true),
+                new ReplicaReadInterceptor());
+    }
+
+    @Scheduled(fixedDelayString = "${striker.datasource.replica.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        routingDataSource.checkReplicas();
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
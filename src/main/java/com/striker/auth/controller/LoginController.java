@@ -0,0 +1,41 @@
+package com.striker.auth.controller;
+
+import com.striker.auth.dto.ApiResponse;
+import com.striker.auth.dto.GuestLoginRequestDto;
+import com.striker.auth.dto.SocialLoginRequestDto;
+import com.striker.auth.service.IUserProfileService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Login endpoints backed by the blocking JPA service. The {@code reactive}
+ * profile serves the same paths from {@link ReactiveLoginController} instead.
+ */
+@Slf4j
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/v1")
+public class LoginController {
+
+    private final IUserProfileService userProfileService;
+
+    public LoginController(IUserProfileService userProfileService) {
+        this.userProfileService = userProfileService;
+    }
+
+    // get data from frontend
+    @PostMapping("/userprofiles/social-login")
+    public ResponseEntity<ApiResponse> socialLogin(@RequestBody SocialLoginRequestDto request) {
+        log.info("Received social login request for provider: {} and providerUserId: {}", request.provider(), request.providerUserId());
+        ApiResponse response = userProfileService.handleSocialLogin(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/guest-login")
+    public ResponseEntity<ApiResponse> guestLogin() {
+        ApiResponse response = userProfileService.handleGuestLogin(new GuestLoginRequestDto());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -2,10 +2,13 @@ package com.striker.auth.controller;
 
 import com.striker.auth.dto.ApiResponse;
 import com.striker.auth.dto.LoginSessionDto;
+import com.striker.auth.dto.PresenceUpdateDto;
 import com.striker.auth.service.ILoginSessionService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.UUID;
 
@@ -27,9 +30,16 @@ public class LoginSessionController {
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<ApiResponse> getLoginUserSessions(@PathVariable UUID userId) {
+    public ResponseEntity<ApiResponse> getLoginUserSessions(@PathVariable UUID userId,
+                                                            @RequestParam(required = false) Integer limit) {
         log.debug("Fetching login sessions for userId: {}", userId);
-        return ResponseEntity.ok(loginSessionService.getLoginUserSessions(userId));
+        return ResponseEntity.ok(loginSessionService.getLoginUserSessions(userId, limit));
+    }
+
+    @GetMapping("/{userId}/latest")
+    public ResponseEntity<ApiResponse> getLatestActiveSession(@PathVariable UUID userId) {
+        log.debug("Fetching latest active session for userId: {}", userId);
+        return ResponseEntity.ok(loginSessionService.getLatestActiveSession(userId));
     }
 
     @PutMapping("/{sessionId}/invalidate")
@@ -38,9 +48,46 @@ public class LoginSessionController {
         return ResponseEntity.ok(loginSessionService.invalidateLoginUserSession(sessionId));
     }
 
+    @PutMapping("/{sessionId}/heartbeat")
+    public ResponseEntity<ApiResponse> heartbeat(@PathVariable UUID sessionId) {
+        log.debug("Heartbeat for sessionId: {}", sessionId);
+        return ResponseEntity.ok(loginSessionService.heartbeat(sessionId));
+    }
+
+    @PatchMapping("/{userId}/presence")
+    public ResponseEntity<ApiResponse> updatePresence(@PathVariable UUID userId,
+                                                      @RequestBody PresenceUpdateDto presenceUpdateDto) {
+        log.debug("Updating presence for userId: {}", userId);
+        return ResponseEntity.ok(loginSessionService.updatePresence(userId, presenceUpdateDto));
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<ApiResponse> findNearbyPlayers(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(defaultValue = "false") boolean availableOnly,
+            @RequestParam(required = false) UUID excludeUserId) {
+        log.debug("Finding players near {}, {} (radiusKm: {}, k: {})", latitude, longitude, radiusKm, k);
+        return ResponseEntity.ok(loginSessionService.findNearbyPlayers(
+                latitude, longitude, radiusKm, k, availableOnly, excludeUserId));
+    }
+
     @GetMapping("/active")
-    public ResponseEntity<ApiResponse> getListOfActiveSessions() {
-        log.debug("Fetching list of active sessions");
-        return ResponseEntity.ok(loginSessionService.getListOfActiveSessions());
+    public ResponseEntity<ApiResponse> getListOfActiveSessions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Fetching page of active sessions, limit: {}", limit);
+        return ResponseEntity.ok(loginSessionService.getListOfActiveSessions(cursor, limit));
+    }
+
+    @GetMapping(value = "/active/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamActiveSessions() {
+        log.debug("Streaming all active sessions");
+        StreamingResponseBody body = loginSessionService::streamActiveSessions;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
@@ -0,0 +1,39 @@
+package com.striker.auth.controller;
+
+import com.striker.auth.dto.ApiResponse;
+import com.striker.auth.dto.GuestLoginRequestDto;
+import com.striker.auth.dto.SocialLoginRequestDto;
+import com.striker.auth.service.IReactiveLoginService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Login endpoints of the {@code reactive} profile. Returning a {@link Mono}
+ * frees the request thread until the R2DBC pipeline completes.
+ */
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1")
+public class ReactiveLoginController {
+
+    private final IReactiveLoginService reactiveLoginService;
+
+    public ReactiveLoginController(IReactiveLoginService reactiveLoginService) {
+        this.reactiveLoginService = reactiveLoginService;
+    }
+
+    @PostMapping("/userprofiles/social-login")
+    public Mono<ResponseEntity<ApiResponse>> socialLogin(@RequestBody SocialLoginRequestDto request) {
+        log.info("Received social login request for provider: {} and providerUserId: {}", request.provider(), request.providerUserId());
+        return reactiveLoginService.handleSocialLogin(request).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/guest-login")
+    public Mono<ResponseEntity<ApiResponse>> guestLogin() {
+        return reactiveLoginService.handleGuestLogin(new GuestLoginRequestDto()).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,40 @@
+package com.striker.auth.controller;
+
+import com.striker.auth.dto.ApiResponse;
+import com.striker.auth.dto.RefreshTokenRequestDto;
+import com.striker.auth.dto.TokenIntrospectionRequestDto;
+import com.striker.auth.dto.TokenRevocationRequestDto;
+import com.striker.auth.service.ITokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/tokens")
+public class TokenController {
+
+    private final ITokenService tokenService;
+
+    public TokenController(ITokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @PostMapping("/introspect")
+    public ResponseEntity<ApiResponse> introspect(@RequestBody TokenIntrospectionRequestDto request) {
+        log.debug("Received token introspection request");
+        return ResponseEntity.ok(tokenService.introspect(request.token()));
+    }
+
+    @PostMapping("/revoke")
+    public ResponseEntity<ApiResponse> revoke(@RequestBody TokenRevocationRequestDto request) {
+        log.debug("Received token revocation request");
+        return ResponseEntity.ok(tokenService.revoke(request.token()));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse> refresh(@RequestBody RefreshTokenRequestDto request) {
+        log.debug("Received token refresh request");
+        return ResponseEntity.ok(tokenService.refresh(request.refreshToken()));
+    }
+}
@@ -1,13 +1,15 @@
 package com.striker.auth.controller;
 
 import com.striker.auth.dto.ApiResponse;
-import com.striker.auth.dto.GuestLoginRequestDto;
-import com.striker.auth.dto.SocialLoginRequestDto;
+import com.striker.auth.dto.UserProfileBatchRequestDto;
 import com.striker.auth.dto.UserProfileDto;
+import com.striker.auth.dto.UserProfileViewDto;
 import com.striker.auth.service.IUserProfileService;
+import com.striker.auth.service.ProfileETagCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 import java.util.UUID;
@@ -18,16 +20,38 @@ import java.util.UUID;
 public class UserProfileController {
 
     private final IUserProfileService userProfileService;
+    private final ProfileETagCache profileETagCache;
 
-    public UserProfileController(IUserProfileService userProfileService) {
+    public UserProfileController(IUserProfileService userProfileService, ProfileETagCache profileETagCache) {
         log.info("UserProfileController initialized");
         this.userProfileService = userProfileService;
+        this.profileETagCache = profileETagCache;
     }
 
+    /**
+     * Answers a matching {@code If-None-Match} with 304 from the ETag cache, before
+     * the profile is loaded.
+     */
     @GetMapping("/getuserprofiles/{userId}")
-    public ResponseEntity<ApiResponse> getUserProfile(@PathVariable UUID userId) {
+    public ResponseEntity<ApiResponse> getUserProfile(@PathVariable UUID userId, WebRequest request) {
         log.info("Received request to get user profile for userId: {}", userId);
+        String etag = profileETagCache.get(userId);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
         ApiResponse response = userProfileService.getUserProfile(userId);
+        if (response.getData() instanceof UserProfileViewDto profile) {
+            return ResponseEntity.ok()
+                    .eTag(ProfileETagCache.etagOf(profile))
+                    .body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/getuserprofiles/batch")
+    public ResponseEntity<ApiResponse> getUserProfiles(@RequestBody UserProfileBatchRequestDto request) {
+        log.info("Received batch request for {} user profiles", request.userIds() != null ? request.userIds().size() : 0);
+        ApiResponse response = userProfileService.getUserProfiles(request.userIds());
         return ResponseEntity.ok(response);
     }
 
@@ -52,20 +76,6 @@ public class UserProfileController {
         return ResponseEntity.ok(response);
     }
 
-    // get data from frontend
-    @PostMapping("/userprofiles/social-login")
-    public ResponseEntity<ApiResponse> socialLogin(@RequestBody SocialLoginRequestDto request) {
-        log.info("Received social login request for provider: {} and providerUserId: {}", request.provider(), request.providerUserId());
-        ApiResponse response = userProfileService.handleSocialLogin(request);
-        return ResponseEntity.ok(response);
-    }
-
-    @PostMapping("/guest-login")
-    public ResponseEntity<ApiResponse> guestLogin() {
-        ApiResponse response = userProfileService.handleGuestLogin(new GuestLoginRequestDto());
-        return ResponseEntity.ok(response);
-    }
-
     @PatchMapping("/profile-pic")
     public ResponseEntity<ApiResponse> updateProfilePic(
             @RequestParam UUID userId,
@@ -0,0 +1,18 @@
+package com.striker.auth.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets the read-only transactions of the annotated method run on a read replica,
+ * when replicas are configured. Only for methods that never write and can live
+ * with data that is up to {@code striker.datasource.replica.max-lag} old.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ReadFromReplica {
+}
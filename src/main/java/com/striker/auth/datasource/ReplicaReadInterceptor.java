@@ -0,0 +1,22 @@
+package com.striker.auth.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Marks the thread as inside a {@link ReadFromReplica} method for the duration of the call.
+ */
+public class ReplicaReadInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        boolean outermost = ReplicaRoutingDataSource.enterReplicaRead();
+        try {
+            return invocation.proceed();
+        } finally {
+            if (outermost) {
+                ReplicaRoutingDataSource.exitReplicaRead();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.striker.auth.datasource;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Primary data source plus read replicas.
+ *
+ * A connection fetched for a read-only transaction inside a {@link ReadFromReplica}
+ * method comes from the next usable replica, round-robin; every other connection
+ * comes from the primary. A replica is usable when its last health check
+ * succeeded and its replication lag was at most {@code maxLag}. With no usable
+ * replica, or when the replica refuses the connection, reads go to the primary.
+ *
+ * The choice is made when the physical connection is fetched, so this must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * JPA asks for the connection before the transaction is marked read-only.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    /**
+     * Seconds since the last replayed transaction, or 0 when the server is not a
+     * standby or has replayed everything it received (an idle primary writes nothing,
+     * so the replay timestamp alone would keep growing).
+     */
+    static final String LAG_SQL = "SELECT CASE"
+            + " WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> SERVED_BY_REPLICA = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = replicaForCurrentTransaction();
+        if (replica != null) {
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                SERVED_BY_REPLICA.set(Boolean.TRUE);
+                return connection;
+            } catch (SQLException e) {
+                replica.down();
+                log.warn("Replica {} refused a connection, reading from the primary until it recovers: {}",
+                        replica.name, e.toString());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Measures every replica's lag and marks it usable or not.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                double lag = rs.getDouble(1);
+                boolean usable = lag <= maxLagSeconds;
+                if (usable != replica.usable) {
+                    log.info("Replica {} is now {} (lag {}s)", replica.name, usable ? "in use" : "skipped", lag);
+                }
+                replica.lagSeconds = lag;
+                replica.usable = usable;
+            } catch (SQLException e) {
+                if (replica.usable) {
+                    log.warn("Replica {} failed its health check: {}", replica.name, e.toString());
+                }
+                replica.down();
+            }
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return List.copyOf(replicas);
+    }
+
+    private Replica replicaForCurrentTransaction() {
+        if (REPLICA_READ.get() == null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.usable) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * True if the current {@link ReadFromReplica} call has read through a replica
+     * connection. Such reads can miss the latest writes, so anything that outlives
+     * the call, like a cached ETag, should only be derived from primary reads.
+     */
+    public static boolean isServedByReplica() {
+        return SERVED_BY_REPLICA.get() != null;
+    }
+
+    /**
+     * Returns false if the thread was already inside a {@link ReadFromReplica} method.
+     */
+    static boolean enterReplicaRead() {
+        if (REPLICA_READ.get() != null) {
+            return false;
+        }
+        REPLICA_READ.set(Boolean.TRUE);
+        return true;
+    }
+
+    static void exitReplicaRead() {
+        REPLICA_READ.remove();
+        SERVED_BY_REPLICA.remove();
+    }
+
+    @Getter
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean usable;
+        /**
+         * Lag at the last successful health check in seconds, NaN if it failed.
+         */
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void down() {
+            usable = false;
+            lagSeconds = Double.NaN;
+        }
+    }
+}
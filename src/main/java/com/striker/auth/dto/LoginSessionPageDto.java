@@ -0,0 +1,13 @@
+package com.striker.auth.dto;
+
+import java.util.List;
+
+/**
+ * One page of sessions; pass {@code nextCursor} back to fetch the following page.
+ * It is null on the last page.
+ */
+public record LoginSessionPageDto(
+        List<LoginSessionViewDto> sessions,
+        String nextCursor
+) {
+}
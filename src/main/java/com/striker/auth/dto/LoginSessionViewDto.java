@@ -0,0 +1,32 @@
+package com.striker.auth.dto;
+
+import com.striker.auth.entity.LoginSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A login session as returned by the session endpoints, without the audit columns.
+ */
+public record LoginSessionViewDto(
+        UUID sessionId,
+        UUID userId,
+        LocalDateTime loginTime,
+        LocalDateTime loggedOut,
+        boolean active,
+        boolean playing,
+        String longitude,
+        String latitude
+) {
+
+    public static LoginSessionViewDto of(LoginSession session) {
+        return new LoginSessionViewDto(session.getSessionId(), session.getUserId(), session.getLoginTime(),
+                session.getLoggedOut(), session.isActive(), session.isPlaying(),
+                session.getLongitude(), session.getLatitude());
+    }
+
+    public static List<LoginSessionViewDto> of(List<LoginSession> sessions) {
+        return sessions.stream().map(LoginSessionViewDto::of).toList();
+    }
+}
@@ -0,0 +1,13 @@
+package com.striker.auth.dto;
+
+import java.util.UUID;
+
+public record NearbyPlayerDto(
+        UUID userId,
+        UUID sessionId,
+        double latitude,
+        double longitude,
+        boolean playing,
+        double distanceKm
+) {
+}
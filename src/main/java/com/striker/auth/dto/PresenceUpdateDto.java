@@ -0,0 +1,11 @@
+package com.striker.auth.dto;
+
+/**
+ * Presence change for a user's active session; null fields are left unchanged.
+ */
+public record PresenceUpdateDto(
+        Boolean playing,
+        String longitude,
+        String latitude
+) {
+}
@@ -6,6 +6,7 @@ public record SocialLoginRequestDto(
         String email,
         String fullName,
         String username,
-        String pictureUrl
+        String pictureUrl,
+        String idToken          // Google ID token; required for GOOGLE once client ids are configured
 ) {
 }
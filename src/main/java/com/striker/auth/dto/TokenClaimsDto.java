@@ -0,0 +1,14 @@
+package com.striker.auth.dto;
+
+import java.time.Instant;
+
+public record TokenClaimsDto(
+        String subject,
+        String userId,
+        String provider,
+        Instant issuedAt,
+        Instant expiresAt,
+        String tokenId,
+        String sessionId
+) {
+}
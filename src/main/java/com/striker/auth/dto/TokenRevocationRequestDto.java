@@ -0,0 +1,6 @@
+package com.striker.auth.dto;
+
+public record TokenRevocationRequestDto(
+        String token
+) {
+}
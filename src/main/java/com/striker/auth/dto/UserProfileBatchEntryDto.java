@@ -0,0 +1,24 @@
+package com.striker.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * One slot of a batch lookup response; {@code profile} is omitted when {@code found} is false.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserProfileBatchEntryDto(
+        UUID userId,
+        boolean found,
+        UserProfileSummaryDto profile
+) {
+
+    public static UserProfileBatchEntryDto found(UserProfileSummaryDto profile) {
+        return new UserProfileBatchEntryDto(profile.userId(), true, profile);
+    }
+
+    public static UserProfileBatchEntryDto notFound(UUID userId) {
+        return new UserProfileBatchEntryDto(userId, false, null);
+    }
+}
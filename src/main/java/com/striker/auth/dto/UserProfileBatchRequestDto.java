@@ -0,0 +1,9 @@
+package com.striker.auth.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record UserProfileBatchRequestDto(
+        List<UUID> userIds
+) {
+}
@@ -23,5 +23,6 @@ public class UserProfileDto  {
     private String providerId; // ID from the auth provider
     private String role; // e.g., "USER", "ADMIN"
     private String dob;
+    private Long version; // version last read; when set, the update fails if the profile changed since
 
 }
@@ -0,0 +1,15 @@
+package com.striker.auth.dto;
+
+import java.util.UUID;
+
+/**
+ * Public subset of a user profile, as returned by batch lookups.
+ */
+public record UserProfileSummaryDto(
+        UUID userId,
+        String username,
+        String fullName,
+        String profilePic,
+        boolean status
+) {
+}
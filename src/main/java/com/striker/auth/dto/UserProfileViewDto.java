@@ -0,0 +1,32 @@
+package com.striker.auth.dto;
+
+import com.striker.auth.entity.UserProfile;
+
+import java.util.UUID;
+
+/**
+ * A user profile as returned by the profile endpoints: the entity without its
+ * password, audit columns and provider links.
+ */
+public record UserProfileViewDto(
+        UUID userId,
+        String username,
+        String fullName,
+        String mobile,
+        String sex,
+        String profilePic,
+        String email,
+        String dob,
+        String lastLogin,
+        String role,
+        boolean status,
+        long version
+) {
+
+    public static UserProfileViewDto of(UserProfile profile) {
+        return new UserProfileViewDto(profile.getUserId(), profile.getUsername(), profile.getFullName(),
+                profile.getMobile(), profile.getSex(), profile.getProfilePic(), profile.getEmail(),
+                profile.getDob(), profile.getLastLogin(), profile.getRole(), profile.isStatus(),
+                profile.getVersion());
+    }
+}
@@ -1,7 +1,10 @@
 package com.striker.auth.entity;
 
+import com.striker.auth.id.UuidV7Id;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -13,12 +16,15 @@ import java.util.UUID;
 @Getter
 @ToString
 @Entity
+@Table(indexes = @Index(name = "idx_login_session_user_active", columnList = "user_id, is_active, login_time"))
 public class LoginSession extends Auditing {
     @Id
+    @UuidV7Id
     public UUID sessionId;
     private UUID userId;
     private LocalDateTime loginTime;
     private LocalDateTime loggedOut;
+    private LocalDateTime lastHeartbeat; // Last heartbeat seen by any node, written in batches
     private boolean isActive; //Active session
     private boolean isPlaying; // Planning or available for joining game
     private String longitude;
@@ -0,0 +1,50 @@
+package com.striker.auth.entity;
+
+import com.striker.auth.id.UuidV7Id;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Opaque refresh token issued alongside an access token. Only the SHA-256 hash
+ * of the token is stored; the raw value is returned to the client once.
+ */
+@Setter
+@Getter
+@ToString
+@Entity
+@Table(name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash"),
+        indexes = @Index(name = "idx_refresh_tokens_session_id", columnList = "session_id"))
+public class RefreshToken extends Auditing {
+
+    @Id
+    @UuidV7Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @ToString.Exclude
+    @Column(name = "token_hash", nullable = false, updatable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "session_id", nullable = false)
+    private UUID sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    private String provider;
+    private LocalDateTime issuedAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime usedAt;   // set once the token has been rotated
+    private boolean revoked;
+}
@@ -0,0 +1,53 @@
+package com.striker.auth.entity;
+
+import com.striker.auth.id.UuidV7Id;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Revoked access token ({@code jti}) or session ({@code sid}), shared between
+ * nodes. Rows are kept until every token they cover has expired.
+ */
+@Setter
+@Getter
+@ToString
+@Entity
+@Table(name = "revoked_tokens",
+        indexes = @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"))
+public class RevokedToken extends Auditing {
+
+    public static final String TOKEN = "TOKEN";
+    public static final String SESSION = "SESSION";
+
+    @Id
+    @UuidV7Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    /**
+     * Token id for {@link #TOKEN}, session id for {@link #SESSION}.
+     */
+    @Column(name = "revoked_id", nullable = false, updatable = false)
+    private String revokedId;
+
+    @Column(name = "kind", nullable = false, updatable = false, length = 16)
+    private String kind;
+
+    /**
+     * Database time of the revocation; other nodes poll on it.
+     */
+    @Column(name = "revoked_at", nullable = false, updatable = false)
+    private Instant revokedAt;
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private Instant expiresAt;
+}
@@ -2,15 +2,24 @@ package com.striker.auth.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.striker.auth.id.UuidV7Id;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -20,10 +29,12 @@ import java.util.UUID;
 @Getter
 @ToString
 @Entity
-@Table(name = "user_profiles")
-public class UserProfile extends Auditing {
+@Table(name = "user_profiles",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_profiles_username", columnNames = "username"))
+public class UserProfile extends Auditing implements Persistable<UUID> {
 
     @Id
+    @UuidV7Id
     @Column(name = "user_id", nullable = false, updatable = false)
     private UUID userId;
 
@@ -41,7 +52,50 @@ public class UserProfile extends Auditing {
     private boolean status;     // active / inactive
     private String password;    // optional; for social login can stay null
 
-    @OneToMany(mappedBy = "userProfile", cascade = CascadeType.ALL, orphanRemoval = true)
+    /**
+     * Bumped by every profile edit; clients send it back with updates to detect
+     * concurrent edits. The write-behind columns (picture, last login) do not bump it.
+     */
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
+    /**
+     * Providers are written with a new profile and removed with it, but not merged:
+     * cascading merge made every profile save load (and join-fetch) this collection.
+     */
+    @OneToMany(mappedBy = "userProfile", cascade = {CascadeType.PERSIST, CascadeType.REMOVE}, orphanRemoval = true)
     @JsonIgnore
+    @ToString.Exclude
     private Set<UserProvider> userProviders = new HashSet<>();
+
+    /**
+     * Whether this instance was loaded from or written to the database. Lets
+     * {@code save} persist profiles whose id was assigned up front (guests) instead
+     * of merging them, which would select the row first.
+     */
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean stored;
+
+    @Override
+    @JsonIgnore
+    public UUID getId() {
+        return userId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
 }
@@ -1,8 +1,10 @@
 package com.striker.auth.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.striker.auth.id.UuidV7Id;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -23,6 +25,7 @@ import java.util.UUID;
 public class UserProvider extends Auditing {
 
     @Id
+    @UuidV7Id
     @Column(name = "id", nullable = false, updatable = false)
     private UUID id;
 
@@ -38,13 +41,17 @@ public class UserProvider extends Auditing {
     @Column(name = "provider_id", nullable = false)
     private String providerId;
 
-    @ManyToOne
+    /**
+     * Loaded on demand; lookups that need the profile fetch it in the same query
+     * (see {@code IUserProviderRepo#findByAuthProviderAndProviderId}).
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_profile_id", nullable = false)
     @JsonIgnore
+    @ToString.Exclude
     private UserProfile userProfile;
 
     public UserProvider(String authProvider, String providerId, UserProfile userProfile) {
-        this.id = UUID.randomUUID();
         this.authProvider = authProvider;
         this.providerId = providerId;
         this.userProfile = userProfile;
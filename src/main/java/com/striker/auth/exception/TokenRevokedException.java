@@ -0,0 +1,13 @@
+package com.striker.auth.exception;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * A validly signed token that was revoked, on its own or with its login session.
+ */
+public class TokenRevokedException extends JwtException {
+
+    public TokenRevokedException(String message) {
+        super(message);
+    }
+}
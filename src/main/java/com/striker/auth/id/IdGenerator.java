@@ -0,0 +1,11 @@
+package com.striker.auth.id;
+
+import java.util.UUID;
+
+/**
+ * Source of primary keys for entities whose id must be known before saving.
+ */
+public interface IdGenerator {
+
+    UUID next();
+}
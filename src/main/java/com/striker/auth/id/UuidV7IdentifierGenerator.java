@@ -0,0 +1,83 @@
+package com.striker.auth.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.resource.beans.container.spi.BeanContainer;
+import org.hibernate.resource.beans.spi.BeanInstanceProducer;
+import org.hibernate.resource.beans.spi.ManagedBeanRegistry;
+import org.hibernate.service.ServiceRegistry;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * Hibernate side of {@link UuidV7Id}. Ids already set on the entity are kept, so
+ * callers that need the key up front can still assign one from {@link IdGenerator}.
+ *
+ * Under Spring, Hibernate's bean container is the application context, and ids
+ * come from the same {@link IdGenerator} bean the services use. Without a
+ * container (plain Hibernate), a {@link UuidV7Generator} is used directly.
+ */
+public class UuidV7IdentifierGenerator implements BeforeExecutionGenerator {
+
+    /**
+     * The container's shared instance, not a freshly created one per generator.
+     */
+    private static final BeanContainer.LifecycleOptions SHARED_BEAN = new BeanContainer.LifecycleOptions() {
+        @Override
+        public boolean canUseCachedReferences() {
+            return true;
+        }
+
+        @Override
+        public boolean useJpaCompliantCreation() {
+            return false;
+        }
+    };
+
+    private static final BeanInstanceProducer DEFAULT_GENERATOR = new BeanInstanceProducer() {
+        @Override
+        public <B> B produceBeanInstance(Class<B> beanType) {
+            return beanType.cast(new UuidV7Generator());
+        }
+
+        @Override
+        public <B> B produceBeanInstance(String name, Class<B> beanType) {
+            return produceBeanInstance(beanType);
+        }
+    };
+
+    private final IdGenerator idGenerator;
+
+    public UuidV7IdentifierGenerator(UuidV7Id config, Member member, CustomIdGeneratorCreationContext context) {
+        this.idGenerator = resolve(context.getServiceRegistry());
+    }
+
+    static IdGenerator resolve(ServiceRegistry serviceRegistry) {
+        ManagedBeanRegistry beanRegistry = serviceRegistry.getService(ManagedBeanRegistry.class);
+        BeanContainer container = beanRegistry != null ? beanRegistry.getBeanContainer() : null;
+        if (container == null) {
+            return new UuidV7Generator();
+        }
+        return container.getBean(IdGenerator.class, SHARED_BEAN, DEFAULT_GENERATOR).getBeanInstance();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        Object assigned = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        return assigned != null ? assigned : idGenerator.next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+}
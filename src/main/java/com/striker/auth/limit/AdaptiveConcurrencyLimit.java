@@ -0,0 +1,126 @@
+package com.striker.auth.limit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows measured latency, after the gradient algorithm
+ * of Netflix's concurrency-limits library (Gradient2).
+ *
+ * Completed requests are grouped into sample windows. A slow moving average of
+ * the windows' mean latency is the no-load baseline. After each window in which
+ * the limit was in use (at least half of it in flight), the limit moves towards
+ * {@code limit * gradient + sqrt(limit)}, where the gradient is
+ * {@code 1.5 * baseline / latency} clamped to [0.5, 1]: latency within 1.5x the
+ * baseline lets the limit grow, anything slower shrinks it by up to half.
+ * Requests over the limit are refused, never queued.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long sampleWindowNanos;
+    private final double baselineWeight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private double baselineNanos;
+    private long windowStart = System.nanoTime();
+    private long windowLatencyNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    /**
+     * @param sampleWindow     shortest span of requests averaged into one latency sample
+     * @param baselineWindows  number of sample windows the latency baseline averages over
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    Duration sampleWindow, int baselineWindows) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.sampleWindowNanos = sampleWindow.toNanos();
+        this.baselineWeight = 2.0 / (baselineWindows + 1);
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Takes a slot, or returns false if the limit is reached. Every successful call
+     * must be followed by one {@link #release(long)}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot and feeds the request's latency into the limit.
+     */
+    public void release(long latencyNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        sample(Math.max(1, latencyNanos), inFlightAtCompletion);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long latencyNanos, int inFlightAtCompletion) {
+        windowLatencyNanos += latencyNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+
+        long now = System.nanoTime();
+        if (windowSamples < MIN_WINDOW_SAMPLES || now - windowStart < sampleWindowNanos) {
+            return;
+        }
+        double latency = (double) windowLatencyNanos / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowStart = now;
+        windowLatencyNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        update(latency, maxInFlight);
+    }
+
+    private void update(double latency, int maxInFlight) {
+        baselineNanos = baselineNanos == 0
+                ? latency
+                : baselineNanos + (latency - baselineNanos) * baselineWeight;
+        // Let the baseline catch up quickly once load, and with it latency, drops
+        if (baselineNanos / latency > 2) {
+            baselineNanos *= 0.95;
+        }
+        // The limit was not reached, so this window says nothing about it
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineNanos / latency));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        double smoothed = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,133 @@
+package com.striker.auth.limit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.striker.auth.dto.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits requests up to an {@link AdaptiveConcurrencyLimit} and answers the rest
+ * at once with 503 and {@code Retry-After}, before they can queue for a database
+ * connection. A request holds its slot until the response completes, including
+ * asynchronous ({@code Mono}) handlers.
+ *
+ * Publishes {@code striker.login.concurrency.limit}, {@code .in_flight} and
+ * {@code .shed}, tagged with {@code flow}.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final String retryAfterSeconds;
+    private final byte[] busyBody;
+    private final Counter shed;
+
+    public ConcurrencyLimitFilter(String flow,
+                                  AdaptiveConcurrencyLimit limit,
+                                  Duration retryAfter,
+                                  MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper) {
+        this.limit = limit;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+        try {
+            this.busyBody = objectMapper.writeValueAsBytes(ApiResponse.error(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many logins in progress, retry after " + retryAfterSeconds + "s"));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        Gauge.builder("striker.login.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("flow", flow)
+                .register(meterRegistry);
+        Gauge.builder("striker.login.concurrency.in_flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests currently admitted")
+                .tag("flow", flow)
+                .register(meterRegistry);
+        this.shed = Counter.builder("striker.login.concurrency.shed")
+                .description("Requests rejected with 503 because the limit was reached")
+                .tag("flow", flow)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            shed.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(busyBody.length);
+            response.getOutputStream().write(busyBody);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Releases the slot of an asynchronous request once, whichever way it ends.
+     */
+    private final class ReleaseOnCompletion implements AsyncListener {
+
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnCompletion(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.striker.auth.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase latency of the login flows, published as the histogram timer
+ * {@code striker.login.phase} tagged with {@code flow} and {@code phase}.
+ *
+ * A phase is timed from a {@link System#nanoTime()} start captured by the caller,
+ * so instrumenting a step does not require wrapping it in a lambda.
+ */
+@Component
+public class LoginMetrics {
+
+    public static final String SOCIAL = "social";
+    public static final String GUEST = "guest";
+
+    public static final String ID_TOKEN = "id_token";
+    public static final String PROVIDER_LOOKUP = "provider_lookup";
+    public static final String EMAIL_CHECK = "email_check";
+    public static final String USERNAME = "username";
+    public static final String SAVE = "save";
+    public static final String SESSION = "session";
+    public static final String JWT = "jwt";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public LoginMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records the time since {@code startNanos} against the flow's phase.
+     */
+    public void record(String flow, String phase, long startNanos) {
+        timer(flow, phase).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times {@code mono} from subscription until it completes, errors or is cancelled.
+     */
+    public <T> Mono<T> time(String flow, String phase, Mono<T> mono) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> record(flow, phase, start));
+        });
+    }
+
+    private Timer timer(String flow, String phase) {
+        return timers.computeIfAbsent(flow + '/' + phase, key -> Timer.builder("striker.login.phase")
+                .description("Duration of one phase of a login")
+                .tag("flow", flow)
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
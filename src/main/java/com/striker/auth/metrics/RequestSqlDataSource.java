@@ -0,0 +1,63 @@
+package com.striker.auth.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Feeds the current request's {@link RequestSqlStats}: the time spent in
+ * {@code getConnection()}, i.e. waiting on the pool, and every statement prepared
+ * on the returned connection, whether by Hibernate or by {@code JdbcTemplate}.
+ */
+public class RequestSqlDataSource extends DelegatingDataSource {
+
+    public RequestSqlDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return counting(super.getConnection());
+        } finally {
+            RequestSqlStats.connectionAcquired(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return counting(super.getConnection(username, password));
+        } finally {
+            RequestSqlStats.connectionAcquired(System.nanoTime() - start);
+        }
+    }
+
+    private static Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(RequestSqlDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement", "prepareCall", "createStatement" -> RequestSqlStats.statementPrepared();
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                        }
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
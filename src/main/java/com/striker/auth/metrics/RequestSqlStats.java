@@ -0,0 +1,49 @@
+package com.striker.auth.metrics;
+
+/**
+ * SQL work done on behalf of the current HTTP request: statements prepared and
+ * time spent waiting for a pooled connection. Work on threads outside a request
+ * (schedulers, write-behind flushes) is not attributed to anything.
+ */
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long connectionWaitNanos;
+
+    private RequestSqlStats() {
+    }
+
+    static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void statementPrepared() {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+        }
+    }
+
+    static void connectionAcquired(long waitNanos) {
+        RequestSqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.connectionWaitNanos += waitNanos;
+        }
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    long connectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+}
@@ -1,16 +1,77 @@
 package com.striker.auth.repos;
 
 import com.striker.auth.entity.LoginSession;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ILoginSessionRepo extends JpaRepository<LoginSession, UUID> {
 
-    LoginSession findByUserId(UUID userId);
+    /**
+     * The user's sessions, newest first; served by {@code idx_login_session_user_active}.
+     */
+    List<LoginSession> findByUserIdOrderByLoginTimeDesc(UUID userId, Limit limit);
+
+    /**
+     * The user's most recent active session; served by the partial index
+     * {@code idx_login_session_active_user}.
+     */
+    Optional<LoginSession> findFirstByUserIdAndIsActiveTrueOrderByLoginTimeDesc(UUID userId);
 
     List<LoginSession> findByIsActiveTrue();
+
+    /**
+     * True if the session is active and its user still has a profile.
+     */
+    @Query("select case when count(s) > 0 then true else false end from LoginSession s "
+            + "where s.sessionId = :sessionId and s.isActive = true "
+            + "and exists (select 1 from UserProfile u where u.userId = s.userId)")
+    boolean isActiveWithProfile(@Param("sessionId") UUID sessionId);
+
+    @Query("select s.sessionId from LoginSession s where s.userId = :userId and s.isActive = true")
+    List<UUID> findActiveSessionIds(@Param("userId") UUID userId);
+
+    @Transactional
+    @Modifying
+    @Query("update LoginSession s set s.isActive = false, s.loggedOut = :now "
+            + "where s.userId = :userId and s.isActive = true")
+    int deactivateByUserId(@Param("userId") UUID userId, @Param("now") LocalDateTime now);
+
+    /**
+     * First page of active sessions in keyset order {@code (loginTime, sessionId)}.
+     */
+    @Query("select s from LoginSession s where s.isActive = true order by s.loginTime, s.sessionId")
+    List<LoginSession> findActivePage(Limit limit);
+
+    /**
+     * Active sessions strictly after the given keyset position.
+     */
+    @Query("select s from LoginSession s where s.isActive = true "
+            + "and (s.loginTime, s.sessionId) > (:loginTime, :sessionId) "
+            + "order by s.loginTime, s.sessionId")
+    List<LoginSession> findActivePageAfter(@Param("loginTime") LocalDateTime loginTime,
+                                           @Param("sessionId") UUID sessionId,
+                                           Limit limit);
+
+    /**
+     * All active sessions as a cursor-backed stream. Must be consumed inside a
+     * transaction, and closed, for the fetch size to take effect.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select s from LoginSession s where s.isActive = true order by s.loginTime, s.sessionId")
+    Stream<LoginSession> streamActive();
 }
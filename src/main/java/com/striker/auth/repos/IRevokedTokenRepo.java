@@ -0,0 +1,37 @@
+package com.striker.auth.repos;
+
+import com.striker.auth.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface IRevokedTokenRepo extends JpaRepository<RevokedToken, UUID> {
+
+    /**
+     * Stores a revocation stamped with the database clock, so pollers on every node
+     * compare against the same time source.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (id, revoked_id, kind, revoked_at, expires_at) "
+            + "VALUES (:id, :revokedId, :kind, CURRENT_TIMESTAMP, :expiresAt)", nativeQuery = true)
+    void insert(@Param("id") UUID id, @Param("revokedId") String revokedId, @Param("kind") String kind,
+                @Param("expiresAt") Instant expiresAt);
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    List<RevokedToken> findByRevokedAtAfterOrderByRevokedAt(Instant since);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,9 +1,14 @@
 package com.striker.auth.repos;
 
+import com.striker.auth.dto.UserProfileSummaryDto;
 import com.striker.auth.entity.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +17,27 @@ public interface IUserProfileRepo extends JpaRepository<UserProfile, UUID> {
     Optional<UserProfile> findByEmail(String email);
 
     boolean existsByUsername(String finalUsername);
+
+    /**
+     * Highest taken suffix N among {@code base} (counted as 0) and {@code base_N},
+     * or null if neither is taken. {@code suffixPattern} narrows the rows with an
+     * index-backed prefix scan; names such as {@code base_doe} are filtered out
+     * before the aggregate.
+     */
+    String MAX_USERNAME_SUFFIX_SQL = "SELECT max(CASE WHEN username = :base THEN 0"
+            + " ELSE CAST(substring(username FROM char_length(:base) + 2) AS integer) END)"
+            + " FROM user_profiles"
+            + " WHERE username = :base"
+            + " OR (username LIKE :suffixPattern ESCAPE '!'"
+            + " AND substring(username FROM char_length(:base) + 2) ~ '^[0-9]{1,9}$')";
+
+    @Query(value = MAX_USERNAME_SUFFIX_SQL, nativeQuery = true)
+    Integer findMaxUsernameSuffix(@Param("base") String base, @Param("suffixPattern") String suffixPattern);
+
+    /**
+     * Summaries of all profiles whose id is in {@code userIds}, in no particular order.
+     */
+    @Query("select new com.striker.auth.dto.UserProfileSummaryDto(p.userId, p.username, p.fullName, p.profilePic, p.status) "
+            + "from UserProfile p where p.userId in :userIds")
+    List<UserProfileSummaryDto> findSummariesByUserIdIn(@Param("userIds") Collection<UUID> userIds);
 }
@@ -1,14 +1,22 @@
 package com.striker.auth.repos;
 
 import com.striker.auth.entity.UserProvider;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface IUserProviderRepo extends JpaRepository<UserProvider, UUID> {
 
+    /**
+     * Provider mapping with its profile, fetched in one joined select.
+     */
+    @EntityGraph(attributePaths = "userProfile")
     Optional<UserProvider> findByAuthProviderAndProviderId(String authProvider, String providerId);
+
+    List<UserProvider> findByUserProfileUserId(UUID userId);
 }
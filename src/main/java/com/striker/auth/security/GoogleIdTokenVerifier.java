@@ -0,0 +1,138 @@
+package com.striker.auth.security;
+
+import com.striker.auth.dto.SocialLoginRequestDto;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Verifies Google ID tokens locally against the keys of {@link GooglePublicKeyCache}:
+ * RS256 signature, issuer, audience (one of {@code striker.google.client-ids})
+ * and expiry.
+ *
+ * Fails closed: without a configured client id every Google login is rejected.
+ * Only {@code striker.google.verification.enabled=false}, meant for local
+ * development, makes social login trust the identity the client sends.
+ */
+@Slf4j
+@Component
+public class GoogleIdTokenVerifier {
+
+    public static final String PROVIDER = "GOOGLE";
+
+    private static final Set<String> ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+
+    private final boolean verificationEnabled;
+    private final Set<String> clientIds;
+    private final JwtParser parser;
+
+    public GoogleIdTokenVerifier(GooglePublicKeyCache keyCache,
+                                 @Value("${striker.google.client-ids:}") List<String> clientIds,
+                                 @Value("${striker.google.clock-skew:PT1M}") Duration clockSkew,
+                                 @Value("${striker.google.verification.enabled:true}") boolean verificationEnabled) {
+        this.verificationEnabled = verificationEnabled;
+        this.clientIds = Set.copyOf(clientIds.stream().filter(id -> !id.isBlank()).toList());
+        this.parser = Jwts.parserBuilder()
+                .setAllowedClockSkewSeconds(clockSkew.toSeconds())
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        if (!SignatureAlgorithm.RS256.getValue().equals(header.getAlgorithm())) {
+                            throw new UnsupportedJwtException("Unexpected algorithm " + header.getAlgorithm());
+                        }
+                        Key key = keyCache.key(header.getKeyId());
+                        if (key == null) {
+                            throw new SignatureException("Unknown Google signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+
+        if (!verificationEnabled) {
+            log.warn("striker.google.verification.enabled=false; Google ID tokens are not verified "
+                    + "and social login trusts client-supplied identities.");
+        } else if (this.clientIds.isEmpty()) {
+            log.error("No striker.google.client-ids configured; every Google login will be rejected.");
+        } else {
+            keyCache.refreshSoon();
+        }
+    }
+
+    public boolean isEnabled() {
+        return verificationEnabled;
+    }
+
+    /**
+     * Validates the token and returns the identity it asserts.
+     *
+     * @throws JwtException if the token is missing, malformed, forged, expired or
+     *                      issued for another client, or no client id is configured
+     */
+    public GoogleIdentity verify(String idToken) {
+        if (clientIds.isEmpty()) {
+            throw new JwtException("Google sign-in is not configured (striker.google.client-ids)");
+        }
+        if (idToken == null || idToken.isBlank()) {
+            throw new JwtException("Missing Google ID token");
+        }
+        Claims claims = parser.parseClaimsJws(idToken).getBody();
+        if (!ISSUERS.contains(claims.getIssuer())) {
+            throw new JwtException("Unexpected issuer " + claims.getIssuer());
+        }
+        if (!clientIds.contains(claims.getAudience())) {
+            throw new JwtException("Unexpected audience " + claims.getAudience());
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new JwtException("ID token without subject or expiry");
+        }
+        return new GoogleIdentity(
+                claims.getSubject(),
+                claims.get("email", String.class),
+                Boolean.TRUE.equals(claims.get("email_verified", Boolean.class)),
+                claims.get("name", String.class),
+                claims.get("picture", String.class)
+        );
+    }
+
+    /**
+     * For Google logins, replaces the client-supplied account id and email with the
+     * ones asserted by the verified ID token; name and picture fall back to the
+     * token's. Other providers, and every request while verification is disabled,
+     * pass through unchanged.
+     *
+     * @throws JwtException if the token does not verify or its email is unverified
+     */
+    public SocialLoginRequestDto verifiedRequest(SocialLoginRequestDto request) {
+        if (!isEnabled() || !PROVIDER.equalsIgnoreCase(request.provider())) {
+            return request;
+        }
+        GoogleIdentity identity = verify(request.idToken());
+        if (!identity.emailVerified()) {
+            throw new JwtException("Google account email is not verified");
+        }
+        return new SocialLoginRequestDto(
+                PROVIDER,
+                identity.subject(),
+                identity.email(),
+                request.fullName() != null && !request.fullName().isBlank() ? request.fullName() : identity.name(),
+                request.username(),
+                request.pictureUrl() != null && !request.pictureUrl().isBlank() ? request.pictureUrl() : identity.picture(),
+                request.idToken()
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.striker.auth.security;
+
+/**
+ * Claims of a verified Google ID token.
+ */
+public record GoogleIdentity(
+        String subject,
+        String email,
+        boolean emailVerified,
+        String name,
+        String picture
+) {
+}
@@ -0,0 +1,172 @@
+package com.striker.auth.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory copy of Google's ID-token signing keys (JWKS), addressed by {@code kid}.
+ *
+ * Keys are fetched in the background and refetched when the response's
+ * {@code Cache-Control: max-age} runs out, so a lookup is a map read and never
+ * waits on the network. A failed fetch keeps the previous keys and retries after
+ * {@code striker.google.jwks.min-refresh-interval}. An unknown {@code kid} (Google
+ * rotated its keys early) triggers an extra fetch, at most once per that interval.
+ */
+@Slf4j
+@Component
+public class GooglePublicKeyCache {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final URI jwksUri;
+    private final Duration minRefreshInterval;
+    private final Duration defaultMaxAge;
+    private final TaskScheduler taskScheduler;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Map<String, PublicKey> keysByKid = Map.of();
+    private volatile Instant expiresAt = Instant.MIN;
+    private volatile Instant lastAttempt = Instant.MIN;
+    private ScheduledFuture<?> nextRefresh;
+
+    public GooglePublicKeyCache(@Value("${striker.google.jwks-uri:https://www.googleapis.com/oauth2/v3/certs}") URI jwksUri,
+                                @Value("${striker.google.jwks.min-refresh-interval:PT30S}") Duration minRefreshInterval,
+                                @Value("${striker.google.jwks.default-max-age:PT1H}") Duration defaultMaxAge,
+                                TaskScheduler taskScheduler,
+                                ObjectMapper objectMapper) {
+        this.jwksUri = jwksUri;
+        this.minRefreshInterval = minRefreshInterval;
+        this.defaultMaxAge = defaultMaxAge;
+        this.taskScheduler = taskScheduler;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * Key for {@code kid}, or null if it is not (yet) known.
+     */
+    public PublicKey key(String kid) {
+        PublicKey key = kid != null ? keysByKid.get(kid) : null;
+        if (key == null) {
+            refreshSoon();
+        }
+        return key;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Starts a background fetch unless one ran within the minimum refresh interval.
+     */
+    public void refreshSoon() {
+        if (lastAttempt.plus(minRefreshInterval).isBefore(Instant.now())) {
+            schedule(Instant.now());
+        }
+    }
+
+    /**
+     * Fetches the key set now, unless a fetch is already running, and schedules the next one.
+     */
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        lastAttempt = Instant.now();
+        try {
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(jwksUri).timeout(Duration.ofSeconds(10)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("HTTP " + response.statusCode());
+            }
+            Map<String, PublicKey> keys = parse(response.body());
+            Duration maxAge = maxAge(response);
+            keysByKid = keys;
+            expiresAt = Instant.now().plus(maxAge);
+            log.info("Loaded {} Google signing key(s), next refresh in {}", keys.size(), maxAge);
+            schedule(expiresAt);
+        } catch (InterruptedException e) {
+            // Shutting down: the scheduler would reject the retry
+            Thread.currentThread().interrupt();
+            log.debug("Google signing key refresh interrupted, not rescheduling");
+        } catch (Exception e) {
+            log.warn("Failed to refresh Google signing keys from {}; keeping {} cached key(s): {}",
+                    jwksUri, keysByKid.size(), e.toString());
+            schedule(Instant.now().plus(minRefreshInterval));
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private synchronized void schedule(Instant at) {
+        if (nextRefresh != null) {
+            nextRefresh.cancel(false);
+        }
+        try {
+            nextRefresh = taskScheduler.schedule(this::refresh, at);
+        } catch (TaskRejectedException e) {
+            nextRefresh = null;
+            log.debug("Google signing key refresh not scheduled, scheduler is shutting down: {}", e.toString());
+        }
+    }
+
+    private Map<String, PublicKey> parse(String body) throws Exception {
+        Map<String, PublicKey> keys = new HashMap<>();
+        KeyFactory rsa = KeyFactory.getInstance("RSA");
+        for (JsonNode jwk : objectMapper.readTree(body).path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asText()) || !jwk.hasNonNull("kid")) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+            keys.put(jwk.get("kid").asText(), rsa.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No RSA keys in JWKS response");
+        }
+        return Map.copyOf(keys);
+    }
+
+    /**
+     * Remaining freshness of the response: {@code max-age} minus {@code Age}, at
+     * least the minimum refresh interval.
+     */
+    private Duration maxAge(HttpResponse<?> response) {
+        Duration maxAge = defaultMaxAge;
+        Matcher matcher = MAX_AGE.matcher(response.headers().firstValue("Cache-Control").orElse(""));
+        if (matcher.find()) {
+            long age = response.headers().firstValueAsLong("Age").orElse(0);
+            maxAge = Duration.ofSeconds(Long.parseLong(matcher.group(1)) - age);
+        }
+        return maxAge.compareTo(minRefreshInterval) < 0 ? minRefreshInterval : maxAge;
+    }
+}
@@ -0,0 +1,188 @@
+package com.striker.auth.security;
+
+import com.striker.auth.config.JwtKeyProperties;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Active signing key plus previous verification keys, addressed by {@code kid}.
+ *
+ * When nothing is configured a random HS256 key is generated, which keeps local
+ * development working but invalidates tokens on restart and across nodes.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    private final Map<String, RingKey> keysByKid;
+    private final RingKey activeKey;
+    private final Map<String, Object> jwks;
+
+    public JwtKeyRing(JwtKeyProperties properties) {
+        Map<String, RingKey> keys = new LinkedHashMap<>();
+        for (JwtKeyProperties.Key configured : properties.getKeys()) {
+            RingKey ringKey = load(configured);
+            if (keys.putIfAbsent(ringKey.kid(), ringKey) != null) {
+                throw new IllegalStateException("Duplicate JWT key id: " + ringKey.kid());
+            }
+        }
+
+        if (keys.isEmpty()) {
+            log.warn("No striker.jwt.keys configured; using an ephemeral HS256 key. "
+                    + "Tokens will not survive a restart or verify on other nodes.");
+            String kid = "ephemeral-" + UUID.randomUUID().toString().substring(0, 8);
+            Key secret = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+            keys.put(kid, new RingKey(kid, SignatureAlgorithm.HS256, secret, secret, null));
+        }
+
+        String activeKid = properties.getActiveKid() != null
+                ? properties.getActiveKid()
+                : keys.keySet().iterator().next();
+        RingKey active = keys.get(activeKid);
+        if (active == null) {
+            throw new IllegalStateException("striker.jwt.active-kid '" + activeKid + "' is not a configured key");
+        }
+        if (active.signingKey() == null) {
+            throw new IllegalStateException("Active JWT key '" + activeKid + "' has no private key");
+        }
+
+        this.keysByKid = Collections.unmodifiableMap(keys);
+        this.activeKey = active;
+        this.jwks = buildJwks(keys.values());
+        log.info("JWT key ring loaded: active kid={}, {} key(s) total", activeKid, keys.size());
+    }
+
+    public RingKey activeKey() {
+        return activeKey;
+    }
+
+    /**
+     * Key used to verify a token with the given {@code kid}. Tokens without a
+     * {@code kid} are checked against the active key.
+     */
+    public Key verificationKey(String kid) {
+        if (kid == null) {
+            return activeKey.verificationKey();
+        }
+        RingKey ringKey = keysByKid.get(kid);
+        if (ringKey == null) {
+            throw new SignatureException("Unknown signing key id: " + kid);
+        }
+        return ringKey.verificationKey();
+    }
+
+    /**
+     * Public keys as a JSON Web Key Set. Symmetric keys are never published.
+     */
+    public Map<String, Object> jwks() {
+        return jwks;
+    }
+
+    private static RingKey load(JwtKeyProperties.Key configured) {
+        if (configured.getKid() == null || configured.getKid().isBlank()) {
+            throw new IllegalStateException("Every striker.jwt.keys entry needs a kid");
+        }
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(configured.getAlgorithm());
+        try {
+            if (algorithm.isHmac()) {
+                Key secret = Keys.hmacShaKeyFor(decode(configured.getSecret()));
+                return new RingKey(configured.getKid(), algorithm, secret, secret, null);
+            }
+
+            String keyFactoryAlgorithm = algorithm.isEllipticCurve() ? "EC" : "RSA";
+            KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm);
+            PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decode(configured.getPublicKey())));
+            Key privateKey = configured.getPrivateKey() != null && !configured.getPrivateKey().isBlank()
+                    ? keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decode(configured.getPrivateKey())))
+                    : null;
+            return new RingKey(configured.getKid(), algorithm, privateKey, publicKey, toJwk(configured.getKid(), algorithm, publicKey));
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Invalid JWT key '" + configured.getKid() + "'", e);
+        }
+    }
+
+    private static byte[] decode(String material) {
+        if (material == null || material.isBlank()) {
+            throw new IllegalStateException("Missing key material");
+        }
+        String base64 = material
+                .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                .replaceAll("\\s+", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static Map<String, Object> toJwk(String kid, SignatureAlgorithm algorithm, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        if (publicKey instanceof ECPublicKey ec) {
+            int size = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + ec.getParams().getCurve().getField().getFieldSize());
+            jwk.put("x", base64Url(ec.getW().getAffineX(), size));
+            jwk.put("y", base64Url(ec.getW().getAffineY(), size));
+        } else if (publicKey instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(rsa.getModulus(), 0));
+            jwk.put("e", base64Url(rsa.getPublicExponent(), 0));
+        }
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    /**
+     * Unsigned big-endian encoding, left-padded to {@code size} bytes when size > 0.
+     */
+    private static String base64Url(BigInteger value, int size) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            bytes = trimmed;
+        }
+        if (size > bytes.length) {
+            byte[] padded = new byte[size];
+            System.arraycopy(bytes, 0, padded, size - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static Map<String, Object> buildJwks(Iterable<RingKey> keys) {
+        List<Map<String, Object>> published = new ArrayList<>();
+        for (RingKey key : keys) {
+            if (key.jwk() != null) {
+                published.add(key.jwk());
+            }
+        }
+        return Map.of("keys", Collections.unmodifiableList(published));
+    }
+
+    public record RingKey(String kid,
+                          SignatureAlgorithm algorithm,
+                          Key signingKey,
+                          Key verificationKey,
+                          Map<String, Object> jwk) {
+    }
+}
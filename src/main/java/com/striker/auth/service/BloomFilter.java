@@ -0,0 +1,69 @@
+package com.striker.auth.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe, fixed-size Bloom filter over strings.
+ *
+ * Probe positions come from double hashing of the string's own (cached)
+ * {@code hashCode}, so {@link #mightContain} allocates nothing. A negative answer
+ * is definite; a positive one needs confirming against the real set.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final int bitMask;
+    private final int hashes;
+
+    /**
+     * @param bits   filter size, rounded up to a power of two
+     * @param hashes probes per key
+     */
+    public BloomFilter(int bits, int hashes) {
+        int size = Integer.highestOneBit(Math.max(64, bits) - 1) << 1;
+        this.words = new AtomicLongArray(size >>> 6);
+        this.bitMask = size - 1;
+        this.hashes = hashes;
+    }
+
+    public void add(String key) {
+        long hash = mix(key.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & bitMask;
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            while (((current = words.get(word)) & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = mix(key.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & bitMask;
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * MurmurHash3 finalizer, spreading a 32-bit hash over 64 bits.
+     */
+    private static long mix(int hashCode) {
+        long h = hashCode;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
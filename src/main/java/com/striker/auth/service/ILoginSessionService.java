@@ -1,9 +1,13 @@
 package com.striker.auth.service;
 
+import com.striker.auth.datasource.ReadFromReplica;
 import com.striker.auth.dto.ApiResponse;
 import com.striker.auth.dto.LoginSessionDto;
+import com.striker.auth.dto.PresenceUpdateDto;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.UUID;
 
 @Service("loginSessionService")
@@ -11,9 +15,23 @@ public interface ILoginSessionService {
 
     ApiResponse createLoginUserSession(LoginSessionDto loginSessionDto);
 
-    ApiResponse getLoginUserSessions(UUID userId);
+    @ReadFromReplica
+    ApiResponse getLoginUserSessions(UUID userId, Integer limit);
+
+    ApiResponse getLatestActiveSession(UUID userId);
 
     ApiResponse invalidateLoginUserSession(UUID sessionId);
 
-    ApiResponse getListOfActiveSessions();
+    ApiResponse heartbeat(UUID sessionId);
+
+    ApiResponse updatePresence(UUID userId, PresenceUpdateDto presenceUpdateDto);
+
+    @ReadFromReplica
+    ApiResponse getListOfActiveSessions(String cursor, Integer limit);
+
+    ApiResponse findNearbyPlayers(double latitude, double longitude, Double radiusKm, Integer k,
+                                  boolean availableOnly, UUID excludeUserId);
+
+    @ReadFromReplica
+    void streamActiveSessions(OutputStream out) throws IOException;
 }
@@ -0,0 +1,17 @@
+package com.striker.auth.service;
+
+import com.striker.auth.dto.ApiResponse;
+import com.striker.auth.dto.GuestLoginRequestDto;
+import com.striker.auth.dto.SocialLoginRequestDto;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the login operations of {@link IUserProfileService},
+ * active under the {@code reactive} profile.
+ */
+public interface IReactiveLoginService {
+
+    Mono<ApiResponse> handleSocialLogin(SocialLoginRequestDto request);
+
+    Mono<ApiResponse> handleGuestLogin(GuestLoginRequestDto request);
+}
@@ -0,0 +1,14 @@
+package com.striker.auth.service;
+
+import com.striker.auth.dto.ApiResponse;
+import org.springframework.stereotype.Service;
+
+@Service("tokenService")
+public interface ITokenService {
+
+    ApiResponse introspect(String token);
+
+    ApiResponse revoke(String token);
+
+    ApiResponse refresh(String refreshToken);
+}
@@ -1,18 +1,24 @@
 package com.striker.auth.service;
 
+import com.striker.auth.datasource.ReadFromReplica;
 import com.striker.auth.dto.ApiResponse;
 import com.striker.auth.dto.GuestLoginRequestDto;
 import com.striker.auth.dto.SocialLoginRequestDto;
 import com.striker.auth.dto.UserProfileDto;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service("userProfileService")
 public interface IUserProfileService {
 
+    @ReadFromReplica
     ApiResponse getUserProfile(UUID userId);
 
+    @ReadFromReplica
+    ApiResponse getUserProfiles(List<UUID> userIds);
+
     ApiResponse updateUserProfile(UserProfileDto userProfileDto);
 
     ApiResponse deleteUserProfile(UUID userId);
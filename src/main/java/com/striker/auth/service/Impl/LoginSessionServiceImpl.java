@@ -1,27 +1,86 @@
 package com.striker.auth.service.Impl;
 
 import com.striker.auth.dto.ApiResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.striker.auth.dto.LoginSessionDto;
+import com.striker.auth.dto.LoginSessionPageDto;
+import com.striker.auth.dto.LoginSessionViewDto;
+import com.striker.auth.dto.NearbyPlayerDto;
+import com.striker.auth.dto.PresenceUpdateDto;
 import com.striker.auth.entity.LoginSession;
 import com.striker.auth.repos.ILoginSessionRepo;
 import com.striker.auth.service.ILoginSessionService;
+import com.striker.auth.service.NearbyPlayersIndex;
+import com.striker.auth.service.PresenceRegistry;
+import com.striker.auth.service.RefreshTokenStore;
+import com.striker.auth.service.TokenRevocationList;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service("loginSessionService")
 public class LoginSessionServiceImpl implements ILoginSessionService {
 
     private final ILoginSessionRepo loginSessionRepo;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocationList tokenRevocationList;
+    private final PresenceRegistry presenceRegistry;
+    private final NearbyPlayersIndex nearbyPlayersIndex;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxNearbyResults;
 
-    public LoginSessionServiceImpl(ILoginSessionRepo loginSessionRepo) {
+    private static final int STREAM_FLUSH_EVERY = 500;
+
+    public LoginSessionServiceImpl(ILoginSessionRepo loginSessionRepo,
+                                   RefreshTokenStore refreshTokenStore,
+                                   TokenRevocationList tokenRevocationList,
+                                   PresenceRegistry presenceRegistry,
+                                   NearbyPlayersIndex nearbyPlayersIndex,
+                                   EntityManager entityManager,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${striker.sessions.page.default-size:200}") int defaultPageSize,
+                                   @Value("${striker.sessions.page.max-size:1000}") int maxPageSize,
+                                   @Value("${striker.nearby.max-results:200}") int maxNearbyResults) {
         this.loginSessionRepo = loginSessionRepo;
+        this.refreshTokenStore = refreshTokenStore;
+        this.tokenRevocationList = tokenRevocationList;
+        this.presenceRegistry = presenceRegistry;
+        this.nearbyPlayersIndex = nearbyPlayersIndex;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxNearbyResults = maxNearbyResults;
     }
 
     @Override
@@ -29,19 +88,17 @@ public class LoginSessionServiceImpl implements ILoginSessionService {
         try {
             LoginSession session = new LoginSession();
             BeanUtils.copyProperties(loginSessionDto, session);
-            if (session.getSessionId() == null) {
-                session.setSessionId(UUID.randomUUID());
-            }
             session.setLoginTime(LocalDateTime.now());
             session.setActive(true);
 
             LoginSession saved = loginSessionRepo.save(session);
+            presenceRegistry.register(saved);
 
             return ApiResponse.builder()
                     .httpStatus(HttpStatus.CREATED)
                     .success(true)
                     .message("Login session created successfully")
-                    .data(saved)
+                    .data(LoginSessionViewDto.of(saved))
                     .build();
         } catch (Exception e) {
             log.error("Error creating login session", e);
@@ -50,9 +107,33 @@ public class LoginSessionServiceImpl implements ILoginSessionService {
     }
 
     @Override
-    public ApiResponse getLoginUserSessions(UUID userId) {
+    public ApiResponse getLoginUserSessions(UUID userId, Integer limit) {
+        int size = limit == null ? defaultPageSize : limit;
+        if (size < 1 || size > maxPageSize) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize);
+        }
         try {
-            LoginSession session = loginSessionRepo.findByUserId(userId);
+            List<LoginSession> sessions = loginSessionRepo.findByUserIdOrderByLoginTimeDesc(userId, Limit.of(size));
+            return ApiResponse.builder()
+                    .httpStatus(HttpStatus.OK)
+                    .success(true)
+                    .data(LoginSessionViewDto.of(sessions))
+                    .build();
+        } catch (Exception e) {
+            log.error("Error retrieving login sessions", e);
+            return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving login sessions");
+        }
+    }
+
+    /**
+     * The user's current session from the presence registry, which also carries
+     * presence changes not yet flushed. Sessions this node does not track are
+     * loaded into the registry from the newest active row.
+     */
+    @Override
+    public ApiResponse getLatestActiveSession(UUID userId) {
+        try {
+            LoginSession session = presenceRegistry.get(userId).orElse(null);
             if (session == null) {
                 return ApiResponse.builder()
                         .httpStatus(HttpStatus.NOT_FOUND)
@@ -64,7 +145,7 @@ public class LoginSessionServiceImpl implements ILoginSessionService {
             return ApiResponse.builder()
                     .httpStatus(HttpStatus.OK)
                     .success(true)
-                    .data(session)
+                    .data(LoginSessionViewDto.of(session))
                     .build();
         } catch (Exception e) {
             log.error("Error retrieving login session", e);
@@ -72,27 +153,37 @@ public class LoginSessionServiceImpl implements ILoginSessionService {
         }
     }
 
+    /**
+     * Ends the session and revokes its tokens. A session already marked inactive,
+     * for example by idle expiry, still has its tokens revoked, so logging out
+     * always cuts off the refresh and access tokens it issued.
+     */
     @Override
     public ApiResponse invalidateLoginUserSession(UUID sessionId) {
         try {
             LoginSession session = loginSessionRepo.findById(sessionId).orElse(null);
-            if (session == null || !session.isActive()) {
+            if (session == null) {
                 return ApiResponse.builder()
                         .httpStatus(HttpStatus.NOT_FOUND)
                         .success(false)
-                        .message("No active session found to invalidate for sessionId: " + sessionId)
+                        .message("No session found to invalidate for sessionId: " + sessionId)
                         .build();
             }
 
-            session.setActive(false);
-            session.setLoggedOut(LocalDateTime.now());
-            loginSessionRepo.save(session);
+            if (session.isActive()) {
+                session.setActive(false);
+                session.setLoggedOut(LocalDateTime.now());
+                loginSessionRepo.save(session);
+            }
+            refreshTokenStore.revokeSession(sessionId);
+            tokenRevocationList.revokeSession(sessionId);
+            presenceRegistry.remove(session.getUserId(), sessionId);
 
             return ApiResponse.builder()
                     .httpStatus(HttpStatus.OK)
                     .success(true)
                     .message("Login session invalidated successfully")
-                    .data(session)
+                    .data(LoginSessionViewDto.of(session))
                     .build();
         } catch (Exception e) {
             log.error("Error invalidating login session", e);
@@ -101,17 +192,190 @@ public class LoginSessionServiceImpl implements ILoginSessionService {
     }
 
     @Override
-    public ApiResponse getListOfActiveSessions() {
+    public ApiResponse heartbeat(UUID sessionId) {
+        if (!presenceRegistry.heartbeat(sessionId)) {
+            return ApiResponse.builder()
+                    .httpStatus(HttpStatus.NOT_FOUND)
+                    .success(false)
+                    .message("No active session found for sessionId: " + sessionId)
+                    .build();
+        }
+        return ApiResponse.builder()
+                .httpStatus(HttpStatus.OK)
+                .success(true)
+                .data(Map.of(
+                        "sessionId", sessionId,
+                        "idleTimeoutSeconds", presenceRegistry.getIdleTimeout().toSeconds()))
+                .build();
+    }
+
+    /**
+     * Updates the playing flag and location in memory only; the registry writes
+     * them to the database in its next flush. A session created on another node
+     * is loaded into this node's registry first.
+     */
+    @Override
+    public ApiResponse updatePresence(UUID userId, PresenceUpdateDto presenceUpdateDto) {
         try {
-            List<LoginSession> activeSessions = loginSessionRepo.findByIsActiveTrue();
+            LoginSession session = presenceRegistry.update(userId, presenceUpdateDto.playing(),
+                    presenceUpdateDto.longitude(), presenceUpdateDto.latitude()).orElse(null);
+            if (session == null) {
+                return ApiResponse.builder()
+                        .httpStatus(HttpStatus.NOT_FOUND)
+                        .success(false)
+                        .message("No active session found for userId: " + userId)
+                        .build();
+            }
+
             return ApiResponse.builder()
                     .httpStatus(HttpStatus.OK)
                     .success(true)
-                    .data(activeSessions)
+                    .data(LoginSessionViewDto.of(session))
+                    .build();
+        } catch (Exception e) {
+            log.error("Error updating presence", e);
+            return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error updating presence");
+        }
+    }
+
+    @Override
+    public ApiResponse getListOfActiveSessions(String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxPageSize);
+        }
+        SessionCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : SessionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+
+        try {
+            // Fetch one extra row to learn whether another page follows
+            Limit fetch = Limit.of(pageSize + 1);
+            List<LoginSession> rows = after == null
+                    ? loginSessionRepo.findActivePage(fetch)
+                    : loginSessionRepo.findActivePageAfter(after.loginTime(), after.sessionId(), fetch);
+
+            String nextCursor = null;
+            if (rows.size() > pageSize) {
+                rows = rows.subList(0, pageSize);
+                nextCursor = SessionCursor.of(rows.get(pageSize - 1)).encode();
+            }
+            return ApiResponse.builder()
+                    .httpStatus(HttpStatus.OK)
+                    .success(true)
+                    .data(new LoginSessionPageDto(LoginSessionViewDto.of(rows), nextCursor))
                     .build();
         } catch (Exception e) {
             log.error("Error retrieving active login sessions", e);
             return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving active login sessions");
         }
     }
+
+    /**
+     * Active players around a point, from the in-memory grid index. With {@code k}
+     * the k nearest are returned (within {@code radiusKm} if given), otherwise all
+     * players within {@code radiusKm}; nearest first in both cases.
+     */
+    @Override
+    public ApiResponse findNearbyPlayers(double latitude, double longitude, Double radiusKm, Integer k,
+                                         boolean availableOnly, UUID excludeUserId) {
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "latitude/longitude out of range");
+        }
+        if (radiusKm == null && k == null) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "Either radiusKm or k is required");
+        }
+        if ((radiusKm != null && (radiusKm <= 0 || radiusKm > nearbyPlayersIndex.getMaxRadiusKm()))
+                || (k != null && (k < 1 || k > maxNearbyResults))) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "radiusKm must be in (0, "
+                    + nearbyPlayersIndex.getMaxRadiusKm() + "] and k in [1, " + maxNearbyResults + "]");
+        }
+
+        try {
+            List<NearbyPlayerDto> players;
+            if (k != null) {
+                players = nearbyPlayersIndex.nearest(latitude, longitude, k, availableOnly, excludeUserId);
+                if (radiusKm != null) {
+                    players.removeIf(player -> player.distanceKm() > radiusKm);
+                }
+            } else {
+                players = nearbyPlayersIndex.withinRadius(latitude, longitude, radiusKm,
+                        availableOnly, excludeUserId, maxNearbyResults);
+            }
+            return ApiResponse.builder()
+                    .httpStatus(HttpStatus.OK)
+                    .success(true)
+                    .data(players)
+                    .build();
+        } catch (Exception e) {
+            log.error("Error finding nearby players", e);
+            return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error finding nearby players");
+        }
+    }
+
+    /**
+     * Writes every active session as one JSON object per line. Rows come from a
+     * database cursor and are detached once written, so memory use does not grow
+     * with the number of sessions.
+     */
+    @Override
+    public void streamActiveSessions(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<LoginSession> sessions = loginSessionRepo.streamActive()) {
+                    int written = 0;
+                    for (Iterator<LoginSession> it = sessions.iterator(); it.hasNext(); ) {
+                        LoginSession session = it.next();
+                        writer.writeValue(generator, LoginSessionViewDto.of(session));
+                        generator.writeRaw('\n');
+                        entityManager.detach(session);
+                        if (++written % STREAM_FLUSH_EVERY == 0) {
+                            generator.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.flush();
+    }
+
+    /**
+     * Keyset position {@code (loginTime, sessionId)}, exchanged with clients as an opaque string.
+     */
+    record SessionCursor(LocalDateTime loginTime, UUID sessionId) {
+
+        static SessionCursor of(LoginSession session) {
+            return new SessionCursor(session.getLoginTime(), session.getSessionId());
+        }
+
+        String encode() {
+            String raw = loginTime + "|" + sessionId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SessionCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                if (sep < 0) {
+                    throw new IllegalArgumentException("Malformed cursor");
+                }
+                return new SessionCursor(LocalDateTime.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed cursor", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,383 @@
+package com.striker.auth.service.Impl;
+
+import com.striker.auth.dto.ApiResponse;
+import com.striker.auth.dto.GuestLoginRequestDto;
+import com.striker.auth.dto.SocialLoginRequestDto;
+import com.striker.auth.entity.LoginSession;
+import com.striker.auth.entity.RefreshToken;
+import com.striker.auth.id.IdGenerator;
+import com.striker.auth.metrics.LoginMetrics;
+import com.striker.auth.repos.IUserProfileRepo;
+import com.striker.auth.security.GoogleIdTokenVerifier;
+import com.striker.auth.service.IReactiveLoginService;
+import com.striker.auth.service.JwtService;
+import com.striker.auth.service.PresenceRegistry;
+import com.striker.auth.service.ProfileETagCache;
+import com.striker.auth.service.ProfileWriteBehindUpdater;
+import com.striker.auth.service.ProviderMappingCache;
+import com.striker.auth.service.RefreshTokenStore;
+import com.striker.auth.service.UsernameAllocator;
+import io.jsonwebtoken.JwtException;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Social and guest login over R2DBC, mirroring {@link UserProfileServiceImpl}.
+ *
+ * Every database call is a non-blocking {@link DatabaseClient} statement, and the
+ * rest of the pipeline (provider cache, username snapshot, presence, JWT signing)
+ * is in-memory work, so a login never parks the thread it runs on. Statements that
+ * must land together run in a local {@link TransactionalOperator}.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveLoginServiceImpl implements IReactiveLoginService {
+
+    private static final String PROFILE_COLUMNS = "u.user_id, u.username, u.full_name, u.email, u.profile_pic";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final JwtService jwtService;
+    private final UsernameAllocator usernameAllocator;
+    private final RefreshTokenStore refreshTokenStore;
+    private final ProviderMappingCache providerMappingCache;
+    private final IdGenerator idGenerator;
+    private final ProfileWriteBehindUpdater profileWriteBehindUpdater;
+    private final ProfileETagCache profileETagCache;
+    private final PresenceRegistry presenceRegistry;
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
+    private final LoginMetrics loginMetrics;
+
+    private static final int MAX_USERNAME_ATTEMPTS = 3;
+
+    public ReactiveLoginServiceImpl(DatabaseClient databaseClient,
+                                    JwtService jwtService,
+                                    UsernameAllocator usernameAllocator,
+                                    RefreshTokenStore refreshTokenStore,
+                                    ProviderMappingCache providerMappingCache,
+                                    IdGenerator idGenerator,
+                                    ProfileWriteBehindUpdater profileWriteBehindUpdater,
+                                    ProfileETagCache profileETagCache,
+                                    PresenceRegistry presenceRegistry,
+                                    GoogleIdTokenVerifier googleIdTokenVerifier,
+                                    LoginMetrics loginMetrics) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = TransactionalOperator.create(
+                new R2dbcTransactionManager(databaseClient.getConnectionFactory()));
+        this.jwtService = jwtService;
+        this.usernameAllocator = usernameAllocator;
+        this.refreshTokenStore = refreshTokenStore;
+        this.providerMappingCache = providerMappingCache;
+        this.idGenerator = idGenerator;
+        this.profileWriteBehindUpdater = profileWriteBehindUpdater;
+        this.profileETagCache = profileETagCache;
+        this.presenceRegistry = presenceRegistry;
+        this.googleIdTokenVerifier = googleIdTokenVerifier;
+        this.loginMetrics = loginMetrics;
+    }
+
+    @Override
+    public Mono<ApiResponse> handleSocialLogin(SocialLoginRequestDto socialLoginRequest) {
+        log.info("Handling social login for provider: {} and providerUserId: {}",
+                socialLoginRequest.provider(), socialLoginRequest.providerUserId());
+        SocialLoginRequestDto request;
+        long idTokenStart = System.nanoTime();
+        try {
+            // Local signature check against cached keys; no network call
+            request = googleIdTokenVerifier.verifiedRequest(socialLoginRequest);
+        } catch (JwtException e) {
+            log.warn("Rejected Google ID token: {}", e.getMessage());
+            return Mono.just(ApiResponse.error(HttpStatus.UNAUTHORIZED, "Invalid Google ID token"));
+        } finally {
+            loginMetrics.record(LoginMetrics.SOCIAL, LoginMetrics.ID_TOKEN, idTokenStart);
+        }
+        String email = request.email();
+        if (email == null || email.isBlank()) {
+            return Mono.just(ApiResponse.error(HttpStatus.BAD_REQUEST,
+                    "Email is required for social login"));
+        }
+
+        return loginMetrics.time(LoginMetrics.SOCIAL, LoginMetrics.PROVIDER_LOOKUP,
+                        findProfileByProvider(request.provider(), request.providerUserId()))
+                .flatMap(existing -> updateReturningProfile(existing, request))
+                // No provider mapping → sign up, unless the email belongs to another account
+                .switchIfEmpty(Mono.defer(() -> loginMetrics.time(LoginMetrics.SOCIAL, LoginMetrics.EMAIL_CHECK, emailExists(email))
+                        .flatMap(exists -> exists ? Mono.<ProfileRow>empty() : createProfile(request))))
+                .flatMap(profile -> {
+                    providerMappingCache.put(request.provider(), request.providerUserId(), profile.userId());
+                    return startSession(LoginMetrics.SOCIAL, profile.userId(), request.provider())
+                            .map(tokens -> ApiResponse.success(UserProfileServiceImpl.buildSafeMap(
+                                    "userId", profile.userId(),
+                                    "email", profile.email(),
+                                    "fullName", profile.fullName(),
+                                    "username", profile.username(),
+                                    "jwt", tokens.jwt(),
+                                    "refreshToken", tokens.refreshToken(),
+                                    "sessionId", tokens.sessionId(),
+                                    "provider", request.provider()
+                            )));
+                })
+                .defaultIfEmpty(ApiResponse.error(HttpStatus.CONFLICT,
+                        "Email already exists. Please login with correct provider."))
+                // In case DB unique constraint catches duplicates
+                .onErrorResume(DataIntegrityViolationException.class,
+                        ex -> Mono.just(UserProfileServiceImpl.socialLoginConflict(ex)))
+                .onErrorResume(e -> {
+                    log.error("Error handling social login", e);
+                    return Mono.just(ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error handling social login"));
+                });
+    }
+
+    @Override
+    public Mono<ApiResponse> handleGuestLogin(GuestLoginRequestDto request) {
+        UUID uuid = idGenerator.next();
+        // username like Guest-3F9A12CD (random tail; UUIDv7 starts with the timestamp)
+        ProfileRow guest = new ProfileRow(uuid, "Guest-" + uuid.toString().substring(28).toUpperCase(), null, null, null);
+
+        Mono<Void> save = transactionalOperator.transactional(
+                insertProfile(guest, "GUEST")
+                        .then(insertProvider(uuid, "GUEST", uuid.toString())));
+        return loginMetrics.time(LoginMetrics.GUEST, LoginMetrics.SAVE, save)
+                .then(Mono.defer(() -> startSession(LoginMetrics.GUEST, uuid, "GUEST")))
+                .map(tokens -> ApiResponse.success(
+                        Map.of(
+                                "userId", guest.userId(),
+                                "username", guest.username(),
+                                "provider", "GUEST",
+                                "jwt", tokens.jwt(),
+                                "refreshToken", tokens.refreshToken(),
+                                "sessionId", tokens.sessionId(),
+                                "isGuest", true
+                        )
+                ))
+                .onErrorResume(e -> {
+                    log.error("Error creating guest user", e);
+                    return Mono.just(ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Guest login failed"));
+                });
+    }
+
+    /**
+     * Resolves the profile linked to a provider account; empty for a first login.
+     */
+    private Mono<ProfileRow> findProfileByProvider(String authProvider, String providerId) {
+        Mono<ProfileRow> cached = providerMappingCache.findUserId(authProvider, providerId)
+                .map(userId -> databaseClient.sql("SELECT " + PROFILE_COLUMNS + " FROM user_profiles u WHERE u.user_id = :userId")
+                        .bind("userId", userId)
+                        .map(ReactiveLoginServiceImpl::toProfile)
+                        .one()
+                        // Profile was deleted (possibly on another node)
+                        .switchIfEmpty(Mono.fromRunnable(() -> providerMappingCache.evict(authProvider, providerId))))
+                .orElse(Mono.empty());
+
+        return cached.switchIfEmpty(Mono.defer(() -> databaseClient.sql("SELECT " + PROFILE_COLUMNS
+                        + " FROM user_providers p JOIN user_profiles u ON u.user_id = p.user_profile_id"
+                        + " WHERE p.auth_provider = :authProvider AND p.provider_id = :providerId")
+                .bind("authProvider", authProvider)
+                .bind("providerId", providerId)
+                .map(ReactiveLoginServiceImpl::toProfile)
+                .first()
+                .doOnNext(profile -> providerMappingCache.put(authProvider, providerId, profile.userId()))));
+    }
+
+    /**
+     * Fills in a missing username or full name; picture and last login go through
+     * the write-behind updater as in the blocking flow. They are only offered to
+     * it: with the buffer full, the blocking flow's JDBC write-through would stall
+     * the event loop, so the update is dropped until the next login.
+     */
+    private Mono<ProfileRow> updateReturningProfile(ProfileRow profile, SocialLoginRequestDto request) {
+        boolean buffered = true;
+        if (request.pictureUrl() != null && !request.pictureUrl().isBlank()
+                && !request.pictureUrl().equals(profile.profilePic())) {
+            buffered = profileWriteBehindUpdater.offerProfilePic(profile.userId(), request.pictureUrl());
+        }
+        buffered &= profileWriteBehindUpdater.offerLogin(profile.userId());
+        if (!buffered) {
+            log.debug("Write-behind buffer full, dropped login update for userId: {}", profile.userId());
+        }
+
+        boolean fullNameMissing = request.fullName() != null && !request.fullName().isBlank()
+                && (profile.fullName() == null || profile.fullName().isBlank());
+        String fullName = fullNameMissing ? request.fullName() : profile.fullName();
+
+        String incomingUsername = request.username();
+        if ((profile.username() == null || profile.username().isBlank())
+                && incomingUsername != null && !incomingUsername.isBlank()) {
+            String usernameBase = UserProfileServiceImpl.resolveUsernameBase(
+                    incomingUsername, request.email(), request.fullName());
+            return withUniqueUsername(usernameBase, username -> updateProfile(
+                    new ProfileRow(profile.userId(), username, fullName, profile.email(), profile.profilePic())));
+        }
+        if (fullNameMissing) {
+            return loginMetrics.time(LoginMetrics.SOCIAL, LoginMetrics.SAVE, updateProfile(
+                    new ProfileRow(profile.userId(), profile.username(), fullName, profile.email(), profile.profilePic())));
+        }
+        return Mono.just(profile);
+    }
+
+    private Mono<ProfileRow> createProfile(SocialLoginRequestDto request) {
+        UUID userId = idGenerator.next();
+        String usernameBase = UserProfileServiceImpl.resolveUsernameBase(
+                request.username(), request.email(), request.fullName());
+        return withUniqueUsername(usernameBase, username -> {
+            ProfileRow profile = new ProfileRow(userId, username, request.fullName(), request.email(), request.pictureUrl());
+            return transactionalOperator.transactional(
+                            insertProfile(profile, "USER")
+                                    .then(insertProvider(userId, request.provider(), request.providerUserId())))
+                    .thenReturn(profile);
+        });
+    }
+
+    /**
+     * Runs {@code save} with a username allocated from {@code usernameBase}. If
+     * another node claimed the same name first, the unique constraint fires and the
+     * next free name is tried.
+     */
+    private Mono<ProfileRow> withUniqueUsername(String usernameBase, Function<String, Mono<ProfileRow>> save) {
+        return Mono.defer(() -> loginMetrics.time(LoginMetrics.SOCIAL, LoginMetrics.USERNAME, allocateUsername(usernameBase))
+                        .flatMap(username -> loginMetrics.time(LoginMetrics.SOCIAL, LoginMetrics.SAVE, save.apply(username))
+                                .doFinally(signal -> usernameAllocator.release(username))))
+                .retryWhen(Retry.max(MAX_USERNAME_ATTEMPTS - 1)
+                        .filter(ex -> ex instanceof DataIntegrityViolationException dive
+                                && UserProfileServiceImpl.isUsernameConflict(dive))
+                        .doBeforeRetry(signal -> {
+                            log.info("Username for base {} was taken concurrently, retrying", usernameBase);
+                            usernameAllocator.evict(usernameBase);
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Mono<String> allocateUsername(String base) {
+        String cached = usernameAllocator.allocateCached(base);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return databaseClient.sql(IUserProfileRepo.MAX_USERNAME_SUFFIX_SQL)
+                .bind("base", base)
+                .bind("suffixPattern", UsernameAllocator.suffixPattern(base))
+                .map(row -> Optional.ofNullable(row.get(0, Integer.class)))
+                .one()
+                .map(maxTakenSuffix -> usernameAllocator.allocate(base, maxTakenSuffix.orElse(null)));
+    }
+
+    private Mono<Boolean> emailExists(String email) {
+        return databaseClient.sql("SELECT 1 FROM user_profiles WHERE email = :email LIMIT 1")
+                .bind("email", email)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<ProfileRow> updateProfile(ProfileRow profile) {
+        DatabaseClient.GenericExecuteSpec update = databaseClient
+                .sql("UPDATE user_profiles SET username = :username, full_name = :fullName, version = version + 1"
+                        + " WHERE user_id = :userId")
+                .bind("userId", profile.userId());
+        update = bindNullable(update, "username", profile.username());
+        update = bindNullable(update, "fullName", profile.fullName());
+        return update.then()
+                .doOnSuccess(done -> profileETagCache.invalidate(profile.userId()))
+                .thenReturn(profile);
+    }
+
+    private Mono<Void> insertProfile(ProfileRow profile, String role) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql("INSERT INTO user_profiles"
+                        + " (user_id, username, full_name, email, profile_pic, last_login, role, status)"
+                        + " VALUES (:userId, :username, :fullName, :email, :profilePic, :lastLogin, :role, true)")
+                .bind("userId", profile.userId())
+                .bind("username", profile.username())
+                .bind("lastLogin", LocalDateTime.now().toString())
+                .bind("role", role);
+        insert = bindNullable(insert, "fullName", profile.fullName());
+        insert = bindNullable(insert, "email", profile.email());
+        insert = bindNullable(insert, "profilePic", profile.profilePic());
+        return insert.then();
+    }
+
+    private Mono<Void> insertProvider(UUID userId, String authProvider, String providerId) {
+        return databaseClient.sql("INSERT INTO user_providers (id, auth_provider, provider_id, user_profile_id)"
+                        + " VALUES (:id, :authProvider, :providerId, :userId)")
+                .bind("id", idGenerator.next())
+                .bind("authProvider", authProvider)
+                .bind("providerId", providerId)
+                .bind("userId", userId)
+                .then();
+    }
+
+    /**
+     * Opens a login session for the user and issues its access and refresh tokens.
+     */
+    private Mono<LoginTokens> startSession(String flow, UUID userId, String provider) {
+        LoginSession session = new LoginSession();
+        session.setSessionId(idGenerator.next());
+        session.setUserId(userId);
+        session.setLoginTime(LocalDateTime.now());
+        session.setActive(true);
+
+        RefreshTokenStore.Issued issued = refreshTokenStore.create(userId, provider, session.getSessionId());
+        RefreshToken refreshToken = issued.refreshToken();
+        refreshToken.setId(idGenerator.next());
+
+        Mono<Void> insertSession = databaseClient.sql("INSERT INTO login_session"
+                        + " (session_id, user_id, login_time, is_active, is_playing)"
+                        + " VALUES (:sessionId, :userId, :loginTime, true, false)")
+                .bind("sessionId", session.getSessionId())
+                .bind("userId", userId)
+                .bind("loginTime", session.getLoginTime())
+                .then();
+        Mono<Void> insertRefreshToken = databaseClient.sql("INSERT INTO refresh_tokens"
+                        + " (id, token_hash, session_id, user_id, provider, issued_at, expires_at, revoked)"
+                        + " VALUES (:id, :tokenHash, :sessionId, :userId, :provider, :issuedAt, :expiresAt, false)")
+                .bind("id", refreshToken.getId())
+                .bind("tokenHash", refreshToken.getTokenHash())
+                .bind("sessionId", refreshToken.getSessionId())
+                .bind("userId", userId)
+                .bind("provider", provider)
+                .bind("issuedAt", refreshToken.getIssuedAt())
+                .bind("expiresAt", refreshToken.getExpiresAt())
+                .then();
+
+        return loginMetrics.time(flow, LoginMetrics.SESSION,
+                        transactionalOperator.transactional(insertSession.then(insertRefreshToken)))
+                .then(Mono.fromCallable(() -> {
+                    presenceRegistry.register(session);
+                    long start = System.nanoTime();
+                    String jwt = jwtService.generateAccessToken(userId, provider, session.getSessionId());
+                    loginMetrics.record(flow, LoginMetrics.JWT, start);
+                    return new LoginTokens(session.getSessionId(), jwt, issued.token());
+                }));
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, String value) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, String.class);
+    }
+
+    private static ProfileRow toProfile(Readable row) {
+        return new ProfileRow(row.get("user_id", UUID.class), row.get("username", String.class),
+                row.get("full_name", String.class), row.get("email", String.class),
+                row.get("profile_pic", String.class));
+    }
+
+    private record ProfileRow(UUID userId, String username, String fullName, String email, String profilePic) {
+    }
+
+    private record LoginTokens(UUID sessionId, String jwt, String refreshToken) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.striker.auth.service.Impl;
+
+import com.striker.auth.dto.ApiResponse;
+import com.striker.auth.dto.TokenClaimsDto;
+import com.striker.auth.entity.RefreshToken;
+import com.striker.auth.exception.TokenRevokedException;
+import com.striker.auth.repos.ILoginSessionRepo;
+import com.striker.auth.service.ITokenService;
+import com.striker.auth.service.JwtService;
+import com.striker.auth.service.RefreshTokenStore;
+import com.striker.auth.service.TokenRevocationList;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Slf4j
+@Service("tokenService")
+public class TokenServiceImpl implements ITokenService {
+
+    private final JwtService jwtService;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocationList tokenRevocationList;
+    private final ILoginSessionRepo loginSessionRepo;
+    private final TransactionTemplate writeTx;
+
+    public TokenServiceImpl(JwtService jwtService,
+                            RefreshTokenStore refreshTokenStore,
+                            TokenRevocationList tokenRevocationList,
+                            ILoginSessionRepo loginSessionRepo,
+                            PlatformTransactionManager transactionManager) {
+        this.jwtService = jwtService;
+        this.refreshTokenStore = refreshTokenStore;
+        this.tokenRevocationList = tokenRevocationList;
+        this.loginSessionRepo = loginSessionRepo;
+        this.writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public ApiResponse introspect(String token) {
+        if (token == null || token.isBlank()) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "token is required");
+        }
+        try {
+            TokenClaimsDto claims = jwtService.verify(token);
+            return ApiResponse.builder()
+                    .httpStatus(HttpStatus.OK)
+                    .success(true)
+                    .message("Token is active")
+                    .data(claims)
+                    .build();
+        } catch (ExpiredJwtException e) {
+            return ApiResponse.error(HttpStatus.UNAUTHORIZED, "Token expired");
+        } catch (TokenRevokedException e) {
+            return ApiResponse.error(HttpStatus.UNAUTHORIZED, "Token revoked");
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected token during introspection: {}", e.getMessage());
+            return ApiResponse.error(HttpStatus.UNAUTHORIZED, "Invalid token");
+        } catch (Exception e) {
+            log.error("Error introspecting token", e);
+            return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error introspecting token");
+        }
+    }
+
+    /**
+     * Revokes a single access token on every node until it expires. Tokens that are
+     * already expired or revoked need nothing and are reported as revoked.
+     */
+    @Override
+    public ApiResponse revoke(String token) {
+        if (token == null || token.isBlank()) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "token is required");
+        }
+        try {
+            TokenClaimsDto claims = jwtService.verify(token);
+            if (claims.tokenId() == null) {
+                return ApiResponse.error(HttpStatus.BAD_REQUEST, "Token has no id and cannot be revoked");
+            }
+            tokenRevocationList.revokeToken(claims.tokenId(), claims.expiresAt());
+            log.info("Revoked access token {} of sessionId: {}", claims.tokenId(), claims.sessionId());
+            return ApiResponse.builder()
+                    .httpStatus(HttpStatus.OK)
+                    .success(true)
+                    .message("Token revoked")
+                    .build();
+        } catch (ExpiredJwtException | TokenRevokedException e) {
+            return ApiResponse.builder()
+                    .httpStatus(HttpStatus.OK)
+                    .success(true)
+                    .message("Token revoked")
+                    .build();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected token during revocation: {}", e.getMessage());
+            return ApiResponse.error(HttpStatus.UNAUTHORIZED, "Invalid token");
+        } catch (Exception e) {
+            log.error("Error revoking token", e);
+            return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error revoking token");
+        }
+    }
+
+    /**
+     * Rotates the refresh token and issues a new access token, provided the session
+     * is still active and its user still exists. The old token is marked used and
+     * its successor stored in one transaction, so a failure in between leaves the
+     * old token usable rather than the session without one.
+     */
+    @Override
+    public ApiResponse refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "refreshToken is required");
+        }
+        try {
+            RefreshToken current = refreshTokenStore.find(refreshToken).orElse(null);
+            if (current == null || current.isRevoked()) {
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+            }
+            if (current.getExpiresAt().isBefore(LocalDateTime.now())) {
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED, "Refresh token expired");
+            }
+
+            if (current.getUsedAt() == null && !loginSessionRepo.isActiveWithProfile(current.getSessionId())) {
+                log.info("Refresh for ended session or deleted user, sessionId: {}", current.getSessionId());
+                refreshTokenStore.revokeSession(current.getSessionId());
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+            }
+
+            // A used token showing up again means it was copied; kill the whole session.
+            String rotated = current.getUsedAt() == null ? rotate(current) : null;
+            if (rotated == null) {
+                log.warn("Refresh token reuse detected for sessionId: {}, revoking session tokens",
+                        current.getSessionId());
+                refreshTokenStore.revokeSession(current.getSessionId());
+                tokenRevocationList.revokeSession(current.getSessionId());
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED, "Refresh token reuse detected");
+            }
+
+            String jwt = jwtService.generateAccessToken(current.getUserId(), current.getProvider(), current.getSessionId());
+
+            return ApiResponse.success(Map.of(
+                    "userId", current.getUserId(),
+                    "sessionId", current.getSessionId(),
+                    "jwt", jwt,
+                    "refreshToken", rotated,
+                    "expiresIn", jwtService.getAccessTokenTtl().toSeconds()
+            ));
+        } catch (Exception e) {
+            log.error("Error refreshing token", e);
+            return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error refreshing token");
+        }
+    }
+
+    /**
+     * Claims the token and stores its successor, or returns null if another
+     * request already claimed it.
+     */
+    private String rotate(RefreshToken current) {
+        return writeTx.execute(status -> refreshTokenStore.markUsed(current)
+                ? refreshTokenStore.issue(current.getUserId(), current.getProvider(), current.getSessionId())
+                : null);
+    }
+}
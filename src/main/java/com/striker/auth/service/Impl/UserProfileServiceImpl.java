@@ -1,17 +1,36 @@
 package com.striker.auth.service.Impl;
 
+import com.striker.auth.datasource.ReplicaRoutingDataSource;
 import com.striker.auth.dto.ApiResponse;
 import com.striker.auth.dto.SocialLoginRequestDto;
+import com.striker.auth.dto.UserProfileBatchEntryDto;
 import com.striker.auth.dto.UserProfileDto;
+import com.striker.auth.dto.UserProfileSummaryDto;
+import com.striker.auth.dto.UserProfileViewDto;
 import com.striker.auth.dto.GuestLoginRequestDto;
+import com.striker.auth.entity.LoginSession;
 import com.striker.auth.entity.UserProfile;
 import com.striker.auth.entity.UserProvider;
+import com.striker.auth.id.IdGenerator;
+import com.striker.auth.metrics.LoginMetrics;
+import com.striker.auth.repos.ILoginSessionRepo;
 import com.striker.auth.repos.IUserProfileRepo;
 import com.striker.auth.repos.IUserProviderRepo;
+import com.striker.auth.security.GoogleIdTokenVerifier;
 import com.striker.auth.service.IUserProfileService;
 import com.striker.auth.service.JwtService;
+import com.striker.auth.service.PartialProfileUpdater;
+import com.striker.auth.service.ProfileETagCache;
+import com.striker.auth.service.PresenceRegistry;
+import com.striker.auth.service.ProfileWriteBehindUpdater;
+import com.striker.auth.service.ProviderMappingCache;
+import com.striker.auth.service.RefreshTokenStore;
+import com.striker.auth.service.TokenRevocationList;
+import com.striker.auth.service.UsernameAllocator;
+import io.jsonwebtoken.JwtException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -26,29 +45,77 @@ public class UserProfileServiceImpl implements IUserProfileService {
     private final IUserProfileRepo userProfileRepo;
     private final IUserProviderRepo userProviderRepo;
     private final JwtService jwtService;
+    private final UsernameAllocator usernameAllocator;
+    private final ILoginSessionRepo loginSessionRepo;
+    private final RefreshTokenStore refreshTokenStore;
+    private final ProviderMappingCache providerMappingCache;
+    private final IdGenerator idGenerator;
+    private final ProfileWriteBehindUpdater profileWriteBehindUpdater;
+    private final PartialProfileUpdater partialProfileUpdater;
+    private final ProfileETagCache profileETagCache;
+    private final PresenceRegistry presenceRegistry;
+    private final TokenRevocationList tokenRevocationList;
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
+    private final LoginMetrics loginMetrics;
+    private final int maxBatchSize;
+
+    private static final int MAX_USERNAME_ATTEMPTS = 3;
 
     public UserProfileServiceImpl(IUserProfileRepo userProfileRepo,
                                   IUserProviderRepo userProviderRepo,
-                                  JwtService jwtService) {
+                                  JwtService jwtService,
+                                  UsernameAllocator usernameAllocator,
+                                  ILoginSessionRepo loginSessionRepo,
+                                  RefreshTokenStore refreshTokenStore,
+                                  ProviderMappingCache providerMappingCache,
+                                  IdGenerator idGenerator,
+                                  ProfileWriteBehindUpdater profileWriteBehindUpdater,
+                                  PartialProfileUpdater partialProfileUpdater,
+                                  ProfileETagCache profileETagCache,
+                                  PresenceRegistry presenceRegistry,
+                                  TokenRevocationList tokenRevocationList,
+                                  GoogleIdTokenVerifier googleIdTokenVerifier,
+                                  LoginMetrics loginMetrics,
+                                  @Value("${striker.profiles.batch.max-size:100}") int maxBatchSize) {
         log.debug("UserProfileServiceImpl initialized");
         this.userProfileRepo = userProfileRepo;
         this.userProviderRepo = userProviderRepo;
         this.jwtService = jwtService;
+        this.usernameAllocator = usernameAllocator;
+        this.loginSessionRepo = loginSessionRepo;
+        this.refreshTokenStore = refreshTokenStore;
+        this.providerMappingCache = providerMappingCache;
+        this.idGenerator = idGenerator;
+        this.profileWriteBehindUpdater = profileWriteBehindUpdater;
+        this.partialProfileUpdater = partialProfileUpdater;
+        this.profileETagCache = profileETagCache;
+        this.presenceRegistry = presenceRegistry;
+        this.tokenRevocationList = tokenRevocationList;
+        this.googleIdTokenVerifier = googleIdTokenVerifier;
+        this.loginMetrics = loginMetrics;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
     public ApiResponse getUserProfile(UUID userId) {
         log.info("Fetching user profile for userId: {}", userId);
         try {
+            Object etagLease = profileETagCache.lease(userId);
             Optional<UserProfile> userProfileOpt = userProfileRepo.findById(userId);
             if (userProfileOpt.isPresent()) {
+                UserProfileViewDto profile = UserProfileViewDto.of(profileWriteBehindUpdater.applyPending(userProfileOpt.get()));
+                // A replica may not have replayed the latest update yet
+                if (!ReplicaRoutingDataSource.isServedByReplica()) {
+                    profileETagCache.store(etagLease, profile);
+                }
                 return ApiResponse.builder()
                         .httpStatus(HttpStatus.OK)
                         .success(true)
                         .message("User profile fetched successfully")
-                        .data(userProfileOpt.get())
+                        .data(profile)
                         .build();
             }
+            profileETagCache.invalidate(userId);
             return ApiResponse.builder()
                     .httpStatus(HttpStatus.NOT_FOUND)
                     .success(false)
@@ -60,88 +127,106 @@ public class UserProfileServiceImpl implements IUserProfileService {
         }
     }
 
+    /**
+     * Resolves many profiles with a single {@code IN} query. The result has one entry per
+     * requested id, in request order, with unknown ids marked as not found.
+     */
     @Override
-    public ApiResponse updateUserProfile(UserProfileDto dto) {
-        log.info("Updating user profile for userId: {}", dto.getUserId());
-
-        if (dto.getUserId() == null) {
-            return ApiResponse.error(HttpStatus.BAD_REQUEST, "userId is required for update");
+    public ApiResponse getUserProfiles(List<UUID> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "userIds must not be empty");
         }
-
+        if (userIds.size() > maxBatchSize) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "At most " + maxBatchSize + " userIds per request");
+        }
+        if (userIds.contains(null)) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "userIds must not contain null");
+        }
+        log.info("Fetching {} user profiles in batch", userIds.size());
         try {
-            Optional<UserProfile> opt = userProfileRepo.findById(dto.getUserId());
-            if (opt.isEmpty()) {
-                return ApiResponse.error(HttpStatus.NOT_FOUND, "User profile not found");
+            Map<UUID, UserProfileSummaryDto> byId = new HashMap<>();
+            for (UserProfileSummaryDto summary : userProfileRepo.findSummariesByUserIdIn(new HashSet<>(userIds))) {
+                byId.put(summary.userId(), profileWriteBehindUpdater.applyPending(summary));
             }
 
-            UserProfile existing = opt.get();
-
-            // Email update (only if provided AND not empty)
-            if (dto.getEmail() != null && !dto.getEmail().trim().isEmpty()) {
-                String newEmail = dto.getEmail().trim().toLowerCase(Locale.ROOT);
-
-                if (!newEmail.equalsIgnoreCase(existing.getEmail())) {
-                    if (userProfileRepo.findByEmail(newEmail).isPresent()) {
-                        return ApiResponse.error(HttpStatus.CONFLICT, "Email already in use");
-                    }
-                    existing.setEmail(newEmail);
-                }
+            List<UserProfileBatchEntryDto> entries = new ArrayList<>(userIds.size());
+            for (UUID userId : userIds) {
+                UserProfileSummaryDto summary = byId.get(userId);
+                entries.add(summary != null
+                        ? UserProfileBatchEntryDto.found(summary)
+                        : UserProfileBatchEntryDto.notFound(userId));
             }
+            return ApiResponse.builder()
+                    .httpStatus(HttpStatus.OK)
+                    .success(true)
+                    .message("User profiles fetched successfully")
+                    .data(entries)
+                    .build();
+        } catch (Exception e) {
+            log.error("Error fetching user profiles in batch", e);
+            return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error fetching user profiles");
+        }
+    }
 
-            // Username update (validate uniqueness)
-            if (dto.getUsername() != null && !dto.getUsername().trim().isEmpty()) {
-                String newUsername = dto.getUsername().trim();
-
-                if (!newUsername.equals(existing.getUsername())) {
-                    if (userProfileRepo.existsByUsername(newUsername)) {
-                        return ApiResponse.error(HttpStatus.CONFLICT, "Username already in use");
-                    }
-                    existing.setUsername(newUsername);
-                }
-            }
+    /**
+     * Writes only the fields present in {@code dto} with one {@code UPDATE}. Email and
+     * username uniqueness come from the unique constraints, and a {@code version} in
+     * the request turns the update into a compare-and-set.
+     */
+    @Override
+    public ApiResponse updateUserProfile(UserProfileDto dto) {
+        log.info("Updating user profile for userId: {}", dto.getUserId());
 
-            // Full name
-            if (dto.getFullName() != null && !dto.getFullName().trim().isEmpty()) {
-                existing.setFullName(dto.getFullName().trim());
-            }
+        if (dto.getUserId() == null) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "userId is required for update");
+        }
 
-            // Mobile
-            if (dto.getMobile() != null && !dto.getMobile().trim().isEmpty()) {
-                existing.setMobile(dto.getMobile().trim());
-            }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfPresent(changes, PartialProfileUpdater.EMAIL,
+                dto.getEmail() != null ? dto.getEmail().trim().toLowerCase(Locale.ROOT) : null);
+        putIfPresent(changes, PartialProfileUpdater.USERNAME, trimmed(dto.getUsername()));
+        putIfPresent(changes, PartialProfileUpdater.FULL_NAME, trimmed(dto.getFullName()));
+        putIfPresent(changes, PartialProfileUpdater.MOBILE, trimmed(dto.getMobile()));
+        putIfPresent(changes, PartialProfileUpdater.SEX, trimmed(dto.getSex()));
+        // Profile pic is stored as sent
+        if (dto.getProfilePic() != null && !dto.getProfilePic().trim().isEmpty()) {
+            changes.put(PartialProfileUpdater.PROFILE_PIC, dto.getProfilePic());
+        }
+        putIfPresent(changes, PartialProfileUpdater.DOB, trimmed(dto.getDob()));
+        putIfPresent(changes, PartialProfileUpdater.ROLE, trimmed(dto.getRole()));
+        putIfPresent(changes, PartialProfileUpdater.PASSWORD, trimmed(dto.getPassword()));
 
-            // Sex
-            if (dto.getSex() != null && !dto.getSex().trim().isEmpty()) {
-                existing.setSex(dto.getSex().trim());
+        try {
+            if (changes.isEmpty()) {
+                return userProfileRepo.findById(dto.getUserId())
+                        .map(profile -> ApiResponse.success(UserProfileViewDto.of(profile)))
+                        .orElseGet(() -> ApiResponse.error(HttpStatus.NOT_FOUND, "User profile not found"));
             }
 
-            // Profile Pic
-            if (dto.getProfilePic() != null && !dto.getProfilePic().trim().isEmpty()) {
-                existing.setProfilePic(dto.getProfilePic());
+            Optional<UserProfile> updated = partialProfileUpdater.update(dto.getUserId(), dto.getVersion(), changes);
+            if (updated.isPresent()) {
+                if (changes.containsKey(PartialProfileUpdater.PROFILE_PIC)) {
+                    profileWriteBehindUpdater.supersedeProfilePic(dto.getUserId(), updated.get().getProfilePic());
+                }
+                profileETagCache.invalidate(dto.getUserId());
+                return ApiResponse.success(UserProfileViewDto.of(updated.get()));
             }
-
-            // DOB
-            if (dto.getDob() != null && !dto.getDob().trim().isEmpty()) {
-                existing.setDob(dto.getDob().trim());
+            // Nothing matched: tell a stale version apart from a missing profile
+            if (dto.getVersion() != null && userProfileRepo.existsById(dto.getUserId())) {
+                return ApiResponse.error(HttpStatus.CONFLICT,
+                        "User profile was modified concurrently, reload and retry");
             }
+            return ApiResponse.error(HttpStatus.NOT_FOUND, "User profile not found");
 
-            // Role — only allow change if provided
-            if (dto.getRole() != null && !dto.getRole().trim().isEmpty()) {
-                existing.setRole(dto.getRole().trim());
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Unique constraint violation updating user {}: {}", dto.getUserId(),
+                    ex.getMostSpecificCause().getMessage());
+            if (isUsernameConflict(ex)) {
+                return ApiResponse.error(HttpStatus.CONFLICT, "Username already in use");
             }
-
-
-            // Password — update only if provided
-            if (dto.getPassword() != null && !dto.getPassword().trim().isEmpty()) {
-                existing.setPassword(dto.getPassword().trim());
+            if (isEmailConflict(ex)) {
+                return ApiResponse.error(HttpStatus.CONFLICT, "Email already in use");
             }
-
-            UserProfile saved = userProfileRepo.save(existing);
-
-            return ApiResponse.success(saved);
-
-        } catch (DataIntegrityViolationException ex) {
-            log.warn("Unique constraint violation updating user {}", dto.getUserId(), ex);
             return ApiResponse.error(HttpStatus.CONFLICT,
                     "Duplicate email or username");
         } catch (Exception e) {
@@ -151,6 +236,16 @@ public class UserProfileServiceImpl implements IUserProfileService {
         }
     }
 
+    private static void putIfPresent(Map<String, Object> changes, String column, String value) {
+        if (value != null && !value.isEmpty()) {
+            changes.put(column, value);
+        }
+    }
+
+    private static String trimmed(String value) {
+        return value != null ? value.trim() : null;
+    }
+
 
     @Override
     public ApiResponse deleteUserProfile(UUID userId) {
@@ -163,7 +258,12 @@ public class UserProfileServiceImpl implements IUserProfileService {
                         .message("User profile not found")
                         .build();
             }
+            List<UserProvider> providers = userProviderRepo.findByUserProfileUserId(userId);
             userProfileRepo.deleteById(userId);
+            providers.forEach(provider ->
+                    providerMappingCache.evict(provider.getAuthProvider(), provider.getProviderId()));
+            profileETagCache.invalidate(userId);
+            endSessions(userId);
             return ApiResponse.builder()
                     .httpStatus(HttpStatus.OK)
                     .success(true)
@@ -187,11 +287,10 @@ public class UserProfileServiceImpl implements IUserProfileService {
             UserProfile profile;
             if (existingOpt.isPresent()) {
                 profile = existingOpt.get();
-                BeanUtils.copyProperties(userProfileDto, profile, "userId", "userProviders");
+                BeanUtils.copyProperties(userProfileDto, profile, "userId", "userProviders", "version");
             } else {
                 profile = new UserProfile();
-                BeanUtils.copyProperties(userProfileDto, profile, "userId", "userProviders");
-                profile.setUserId(UUID.randomUUID());
+                BeanUtils.copyProperties(userProfileDto, profile, "userId", "userProviders", "version");
                 profile.setStatus(true);
                 profile.setRole(userProfileDto.getRole() != null ? userProfileDto.getRole() : "USER");
                 profile.setLastLogin(LocalDateTime.now().toString());
@@ -201,11 +300,16 @@ public class UserProfileServiceImpl implements IUserProfileService {
             }
 
             UserProfile saved = userProfileRepo.save(profile);
+            if (existingOpt.isPresent()) {
+                // The full-row save wrote profile_pic too
+                profileWriteBehindUpdater.supersedeProfilePic(saved.getUserId(), saved.getProfilePic());
+            }
+            profileETagCache.invalidate(saved.getUserId());
             return ApiResponse.builder()
                     .httpStatus(HttpStatus.CREATED)
                     .success(true)
                     .message("User profile created/updated successfully")
-                    .data(saved)
+                    .data(UserProfileViewDto.of(saved))
                     .build();
         } catch (Exception e) {
             log.error("Error adding user profile for email: {}", userProfileDto.getEmail(), e);
@@ -217,6 +321,15 @@ public class UserProfileServiceImpl implements IUserProfileService {
     public ApiResponse handleSocialLogin(SocialLoginRequestDto request) {
         log.info("Handling social login for provider: {} and providerUserId: {}",
                 request.provider(), request.providerUserId());
+        long idTokenStart = System.nanoTime();
+        try {
+            request = googleIdTokenVerifier.verifiedRequest(request);
+        } catch (JwtException e) {
+            log.warn("Rejected Google ID token: {}", e.getMessage());
+            return ApiResponse.error(HttpStatus.UNAUTHORIZED, "Invalid Google ID token");
+        } finally {
+            loginMetrics.record(LoginMetrics.SOCIAL, LoginMetrics.ID_TOKEN, idTokenStart);
+        }
         try {
             String email = request.email();
             if (email == null || email.isBlank()) {
@@ -224,38 +337,50 @@ public class UserProfileServiceImpl implements IUserProfileService {
                         "Email is required for social login");
             }
 
-            // Find existing provider mapping
-            UserProvider existingProvider = userProviderRepo
-                    .findByAuthProviderAndProviderId(request.provider(), request.providerUserId())
-                    .orElse(null);
+            // Find existing provider mapping (cached for returning users)
+            long start = System.nanoTime();
+            UserProfile existingProfile = findProfileByProvider(request.provider(), request.providerUserId());
+            loginMetrics.record(LoginMetrics.SOCIAL, LoginMetrics.PROVIDER_LOOKUP, start);
 
             UserProfile userProfile;
+            String usernameBase = null;
+            boolean profileChanged = true;
 
-            if (existingProvider != null) {
+            if (existingProfile != null) {
                 // Provider exists → Update and return existing user
-                userProfile = existingProvider.getUserProfile();
+                userProfile = existingProfile;
+                profileChanged = false;
 
                 // If incoming provider sent a username and profile has none, set it (sanitized + unique)
                 String incomingUsername = request.username();
                 if ((userProfile.getUsername() == null || userProfile.getUsername().isBlank())
                         && incomingUsername != null && !incomingUsername.isBlank()) {
-                    userProfile.setUsername(
-                            generateUniqueUsername(incomingUsername, request.email(), request.fullName(), userProfile.getUserId())
-                    );
+                    start = System.nanoTime();
+                    usernameBase = resolveUsernameBase(incomingUsername, request.email(), request.fullName());
+                    userProfile.setUsername(usernameAllocator.allocate(usernameBase));
+                    loginMetrics.record(LoginMetrics.SOCIAL, LoginMetrics.USERNAME, start);
+                    profileChanged = true;
                 }
 
                 // Update optional fields only if provided (avoid clearing)
-                if (request.pictureUrl() != null && !request.pictureUrl().isBlank()) {
-                    userProfile.setProfilePic(request.pictureUrl());
-                }
                 if (request.fullName() != null && !request.fullName().isBlank()
                         && (userProfile.getFullName() == null || userProfile.getFullName().isBlank())) {
                     userProfile.setFullName(request.fullName());
+                    profileChanged = true;
                 }
-                userProfile.setLastLogin(LocalDateTime.now().toString());
+
+                // Picture and last login are hot, low-value columns: batch them instead of saving the row.
+                // The managed entity is left untouched so no flush in this request rewrites the whole row.
+                if (request.pictureUrl() != null && !request.pictureUrl().isBlank()
+                        && !request.pictureUrl().equals(userProfile.getProfilePic())) {
+                    profileWriteBehindUpdater.updateProfilePic(userProfile.getUserId(), request.pictureUrl());
+                }
+                profileWriteBehindUpdater.recordLogin(userProfile.getUserId());
             } else {
                 // No provider mapping → Check if email already exists
+                start = System.nanoTime();
                 Optional<UserProfile> emailUserOpt = userProfileRepo.findByEmail(email);
+                loginMetrics.record(LoginMetrics.SOCIAL, LoginMetrics.EMAIL_CHECK, start);
                 if (emailUserOpt.isPresent()) {
                     // Email exists → BLOCK THE USER CREATION
                     return ApiResponse.error(HttpStatus.CONFLICT,
@@ -264,8 +389,6 @@ public class UserProfileServiceImpl implements IUserProfileService {
 
                 // Email is UNIQUE → Create new user
                 userProfile = new UserProfile();
-                UUID newUserId = UUID.randomUUID();
-                userProfile.setUserId(newUserId);
                 userProfile.setEmail(email);
                 userProfile.setFullName(request.fullName());
                 userProfile.setProfilePic(request.pictureUrl());
@@ -275,13 +398,13 @@ public class UserProfileServiceImpl implements IUserProfileService {
                 userProfile.setUserProviders(new HashSet<>());
 
                 // Generate username: prefer provider's username if present, otherwise fullName/email
-                userProfile.setUsername(
-                        generateUniqueUsername(request.username(), request.email(), request.fullName(), newUserId)
-                );
+                start = System.nanoTime();
+                usernameBase = resolveUsernameBase(request.username(), request.email(), request.fullName());
+                userProfile.setUsername(usernameAllocator.allocate(usernameBase));
+                loginMetrics.record(LoginMetrics.SOCIAL, LoginMetrics.USERNAME, start);
 
                 // Create provider link
                 UserProvider newProvider = new UserProvider();
-                newProvider.setId(UUID.randomUUID());
                 newProvider.setAuthProvider(request.provider());
                 newProvider.setProviderId(request.providerUserId());
                 newProvider.setUserProfile(userProfile);
@@ -289,17 +412,28 @@ public class UserProfileServiceImpl implements IUserProfileService {
                 userProfile.getUserProviders().add(newProvider);
             }
 
-            // Save user
-            userProfile = userProfileRepo.save(userProfile);
+            // Save user (returning users only when something other than picture/last login changed)
+            start = System.nanoTime();
+            if (usernameBase != null) {
+                userProfile = saveWithUniqueUsername(userProfile, usernameBase);
+                profileETagCache.invalidate(userProfile.getUserId());
+            } else if (profileChanged) {
+                userProfile = userProfileRepo.save(userProfile);
+                profileETagCache.invalidate(userProfile.getUserId());
+            }
+            loginMetrics.record(LoginMetrics.SOCIAL, LoginMetrics.SAVE, start);
+            providerMappingCache.put(request.provider(), request.providerUserId(), userProfile.getUserId());
 
-            // Generate JWT
-            String jwt = jwtService.generateTokenForUser(userProfile, request.provider());
+            // Open session and generate JWT + refresh token
+            LoginTokens tokens = startSession(LoginMetrics.SOCIAL, userProfile.getUserId(), request.provider());
             Map<String, Object> responseMap = buildSafeMap(
                     "userId", userProfile.getUserId(),
                     "email", userProfile.getEmail(),
                     "fullName", userProfile.getFullName(),
                     "username", userProfile.getUsername(),
-                    "jwt", jwt,
+                    "jwt", tokens.jwt(),
+                    "refreshToken", tokens.refreshToken(),
+                    "sessionId", tokens.sessionId(),
                     "provider", request.provider()
             );
 
@@ -307,7 +441,7 @@ public class UserProfileServiceImpl implements IUserProfileService {
 
         } catch (DataIntegrityViolationException ex) {
             // In case DB unique constraint catches duplicates
-            return ApiResponse.error(HttpStatus.CONFLICT, "Email already exists");
+            return socialLoginConflict(ex);
         } catch (Exception e) {
             log.error("Error handling social login", e);
             return ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR, "Error handling social login");
@@ -322,20 +456,19 @@ public class UserProfileServiceImpl implements IUserProfileService {
         try {
             // Create UserProfile
             UserProfile user = new UserProfile();
-            UUID uuid = UUID.randomUUID();
+            UUID uuid = idGenerator.next();
 
             user.setUserId(uuid);
             user.setRole("GUEST");
             user.setStatus(true);
             user.setLastLogin(LocalDateTime.now().toString());
 
-            // username like Guest-3F9A12CD
-            String shortId = uuid.toString().substring(0, 8).toUpperCase();
+            // username like Guest-3F9A12CD (random tail; UUIDv7 starts with the timestamp)
+            String shortId = uuid.toString().substring(28).toUpperCase();
             user.setUsername("Guest-" + shortId);
 
             // Create UserProvider
             UserProvider provider = new UserProvider();
-            provider.setId(UUID.randomUUID());
             provider.setAuthProvider("GUEST");
             provider.setProviderId(uuid.toString()); // simple approach
             provider.setUserProfile(user);
@@ -343,10 +476,12 @@ public class UserProfileServiceImpl implements IUserProfileService {
             user.setUserProviders(Set.of(provider));
 
             // Save user
+            long start = System.nanoTime();
             user = userProfileRepo.save(user);
+            loginMetrics.record(LoginMetrics.GUEST, LoginMetrics.SAVE, start);
 
-            // Create JWT
-            String jwt = jwtService.generateTokenForUser(user, "GUEST");
+            // Open session and create JWT + refresh token
+            LoginTokens tokens = startSession(LoginMetrics.GUEST, user.getUserId(), "GUEST");
 
             // Response
             return ApiResponse.success(
@@ -354,7 +489,9 @@ public class UserProfileServiceImpl implements IUserProfileService {
                             "userId", user.getUserId(),
                             "username", user.getUsername(),
                             "provider", "GUEST",
-                            "jwt", jwt,
+                            "jwt", tokens.jwt(),
+                            "refreshToken", tokens.refreshToken(),
+                            "sessionId", tokens.sessionId(),
                             "isGuest", true
                     )
             );
@@ -365,18 +502,71 @@ public class UserProfileServiceImpl implements IUserProfileService {
         }
     }
 
-    private String generateUniqueUsername(String incomingUsername, String email, String fullName, UUID userId) {
-        // 1) If user exists and already has username, preserve it.
-        if (userId != null) {
-            Optional<UserProfile> existingOpt = userProfileRepo.findById(userId);
-            if (existingOpt.isPresent()) {
-                String existingUsername = existingOpt.get().getUsername();
-                if (existingUsername != null && !existingUsername.isBlank()) {
-                    return existingUsername;
-                }
+    /**
+     * Resolves the profile linked to a provider account, or null for a first login.
+     * Cache hits cost a primary-key lookup; misses fall back to the provider table.
+     */
+    private UserProfile findProfileByProvider(String authProvider, String providerId) {
+        Optional<UUID> cachedUserId = providerMappingCache.findUserId(authProvider, providerId);
+        if (cachedUserId.isPresent()) {
+            Optional<UserProfile> cached = userProfileRepo.findById(cachedUserId.get());
+            if (cached.isPresent()) {
+                return cached.get();
             }
+            // Profile was deleted (possibly on another node)
+            providerMappingCache.evict(authProvider, providerId);
+        }
+
+        UserProvider provider = userProviderRepo
+                .findByAuthProviderAndProviderId(authProvider, providerId)
+                .orElse(null);
+        if (provider == null) {
+            return null;
+        }
+        UserProfile profile = provider.getUserProfile();
+        providerMappingCache.put(authProvider, providerId, profile.getUserId());
+        return profile;
+    }
+
+    /**
+     * Opens a login session for the user and issues its access and refresh tokens.
+     */
+    private LoginTokens startSession(String flow, UUID userId, String provider) {
+        long start = System.nanoTime();
+        LoginSession session = new LoginSession();
+        session.setUserId(userId);
+        session.setLoginTime(LocalDateTime.now());
+        session.setActive(true);
+        session = loginSessionRepo.save(session);
+        presenceRegistry.register(session);
+
+        String refreshToken = refreshTokenStore.issue(userId, provider, session.getSessionId());
+        loginMetrics.record(flow, LoginMetrics.SESSION, start);
+
+        start = System.nanoTime();
+        String jwt = jwtService.generateAccessToken(userId, provider, session.getSessionId());
+        loginMetrics.record(flow, LoginMetrics.JWT, start);
+        return new LoginTokens(session.getSessionId(), jwt, refreshToken);
+    }
+
+    private record LoginTokens(UUID sessionId, String jwt, String refreshToken) {
+    }
+
+    /**
+     * Ends every session of a deleted user: refresh tokens are revoked, active
+     * sessions marked logged out and their access tokens revoked on every node.
+     */
+    private void endSessions(UUID userId) {
+        refreshTokenStore.revokeUser(userId);
+        List<UUID> sessionIds = loginSessionRepo.findActiveSessionIds(userId);
+        loginSessionRepo.deactivateByUserId(userId, LocalDateTime.now());
+        for (UUID sessionId : sessionIds) {
+            tokenRevocationList.revokeSession(sessionId);
+            presenceRegistry.remove(userId, sessionId);
         }
+    }
 
+    static String resolveUsernameBase(String incomingUsername, String email, String fullName) {
         // Try incoming username first
         String base = sanitizeUsername(incomingUsername);
 
@@ -399,18 +589,58 @@ public class UserProfileServiceImpl implements IUserProfileService {
         if (base.isBlank()) {
             base = "user" + UUID.randomUUID().toString().substring(0, 8);
         }
+        return base;
+    }
 
-        // ensure uniqueness
-        String candidate = base;
-        int counter = 1;
-        while (userProfileRepo.existsByUsername(candidate)) {
-            candidate = base + "_" + counter;
-            counter++;
+    /**
+     * Saves a profile whose username was just allocated from {@code usernameBase}.
+     * If another node claimed the same name first, the unique constraint fires and
+     * the next free name is tried.
+     */
+    private UserProfile saveWithUniqueUsername(UserProfile profile, String usernameBase) {
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return userProfileRepo.save(profile);
+                } catch (DataIntegrityViolationException ex) {
+                    if (attempt >= MAX_USERNAME_ATTEMPTS || !isUsernameConflict(ex)) {
+                        throw ex;
+                    }
+                    log.info("Username {} was taken concurrently, retrying", profile.getUsername());
+                    usernameAllocator.release(profile.getUsername());
+                    usernameAllocator.evict(usernameBase);
+                    profile.setUsername(usernameAllocator.allocate(usernameBase));
+                }
+            }
+        } finally {
+            usernameAllocator.release(profile.getUsername());
         }
-        return candidate;
     }
 
-    private String sanitizeUsername(String raw) {
+    /**
+     * Conflict response for a unique constraint hit while saving a social login's
+     * profile; a username conflict means every retry of the allocator collided.
+     */
+    static ApiResponse socialLoginConflict(DataIntegrityViolationException ex) {
+        log.warn("Unique constraint violation on social login: {}", ex.getMostSpecificCause().getMessage());
+        if (isUsernameConflict(ex)) {
+            return ApiResponse.error(HttpStatus.CONFLICT, "Username already in use");
+        }
+        return ApiResponse.error(HttpStatus.CONFLICT, "Email already exists");
+    }
+
+    static boolean isUsernameConflict(DataIntegrityViolationException ex) {
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null
+                && (message.contains("uk_user_profiles_username") || message.contains("(username)"));
+    }
+
+    static boolean isEmailConflict(DataIntegrityViolationException ex) {
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null && message.contains("(email)");
+    }
+
+    static String sanitizeUsername(String raw) {
         if (raw == null) return null;
         String s = raw.trim().toLowerCase();
         // replace spaces with dots
@@ -430,20 +660,21 @@ public class UserProfileServiceImpl implements IUserProfileService {
 
     @Override
     public ApiResponse updateProfilePic(UUID userId, String profilePicUrl) {
+        if (profilePicUrl == null || profilePicUrl.isBlank()) {
+            return ApiResponse.error(HttpStatus.BAD_REQUEST, "profilePic is required");
+        }
         try {
-            var userOpt = userProfileRepo.findById(userId);
-            if (userOpt.isEmpty()) {
+            if (!userProfileRepo.existsById(userId)) {
                 return ApiResponse.error(HttpStatus.NOT_FOUND, "User not found");
             }
 
-            UserProfile user = userOpt.get();
-            user.setProfilePic(profilePicUrl);
-            userProfileRepo.save(user);
+            // Written in the next write-behind flush; reads overlay the pending value
+            profileWriteBehindUpdater.updateProfilePic(userId, profilePicUrl);
 
             return ApiResponse.success(
                     Map.of(
-                            "userId", user.getUserId(),
-                            "profilePic", user.getProfilePic()
+                            "userId", userId,
+                            "profilePic", profilePicUrl
                     )
             );
 
@@ -453,7 +684,7 @@ public class UserProfileServiceImpl implements IUserProfileService {
         }
     }
 
-    private static Map<String, Object> buildSafeMap(Object... keysAndValues) {
+    static Map<String, Object> buildSafeMap(Object... keysAndValues) {
         Map<String, Object> map = new HashMap<>();
         for (int i = 0; i + 1 < keysAndValues.length; i += 2) {
             String key = (String) keysAndValues[i];
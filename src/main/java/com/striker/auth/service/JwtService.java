@@ -1,53 +1,184 @@
 package com.striker.auth.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.striker.auth.dto.TokenClaimsDto;
 import com.striker.auth.entity.UserProfile;
+import com.striker.auth.exception.TokenRevokedException;
+import com.striker.auth.id.IdGenerator;
+import com.striker.auth.security.JwtKeyRing;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
- * Simple JWT generator.
+ * Simple JWT generator and verifier.
  *
- * In a real production system you would load the secret key from configuration
- * (e.g. environment variable) so it is stable across restarts.
+ * Tokens are signed with the active key of the {@link JwtKeyRing} and carry its
+ * {@code kid}, so any node sharing the key configuration can verify them.
+ *
+ * Verified tokens are kept in a bounded cache until they expire, so repeated
+ * checks of the same token are a hash lookup instead of a signature check.
+ * Access tokens carry a {@code jti} and the login session id ({@code sid}), and
+ * are checked against the {@link TokenRevocationList} on every verification.
  */
 @Service
 public class JwtService {
 
-    private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    private static final String SESSION_ID_CLAIM = "sid";
+
+    private final JwtKeyRing keyRing;
+    private final IdGenerator idGenerator;
+    private final TokenRevocationList tokenRevocationList;
+    private final JwtParser parser;
+    private final Cache<String, TokenClaimsDto> verifiedTokens;
+    private final Duration accessTokenTtl;
+
+    public JwtService(JwtKeyRing keyRing,
+                      IdGenerator idGenerator,
+                      TokenRevocationList tokenRevocationList,
+                      @Value("${striker.jwt.access-token-ttl:PT15M}") Duration accessTokenTtl,
+                      @Value("${striker.jwt.verify-cache.max-size:50000}") long verifyCacheMaxSize,
+                      @Value("${striker.jwt.verify-cache.max-ttl:PT5M}") Duration verifyCacheMaxTtl) {
+        this.keyRing = keyRing;
+        this.idGenerator = idGenerator;
+        this.tokenRevocationList = tokenRevocationList;
+        this.accessTokenTtl = accessTokenTtl;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return keyRing.verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifyCacheMaxSize)
+                .expireAfter(new UntilTokenExpiry(verifyCacheMaxTtl))
+                .build();
+    }
 
     public String generateTokenForUser(UserProfile user, String provider) {
+        return generateAccessToken(user.getUserId(), provider, null);
+    }
+
+    /**
+     * Short-lived access token for a login session; clients renew it with their
+     * refresh token. Invalidating the session revokes it.
+     */
+    public String generateAccessToken(UUID userId, String provider, UUID sessionId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("provider", provider);
-        claims.put("userId", user.getUserId().toString());
+        claims.put("userId", userId.toString());
+        if (sessionId != null) {
+            claims.put(SESSION_ID_CLAIM, sessionId.toString());
+        }
 
         long now = System.currentTimeMillis();
-        long expiryMillis = now + 1000L * 60 * 60 * 5; // 5 hours
+        long expiryMillis = now + accessTokenTtl.toMillis();
 
-        return Jwts.builder()
+        return signed(Jwts.builder()
                 .setClaims(claims)
-                .setSubject(user.getUserId().toString())
+                .setId(idGenerator.next().toString())
+                .setSubject(userId.toString())
                 .setIssuedAt(new Date(now))
-                .setExpiration(new Date(expiryMillis))
-                .signWith(key)
-                .compact();
+                .setExpiration(new Date(expiryMillis)));
     }
 
     public String generateToken(String subject) {
         long now = System.currentTimeMillis();
-        long expiryMillis = now + 1000L * 60 * 60 * 5;
+        long expiryMillis = now + accessTokenTtl.toMillis();
 
-        return Jwts.builder()
+        return signed(Jwts.builder()
                 .setSubject(subject)
                 .setIssuedAt(new Date(now))
-                .setExpiration(new Date(expiryMillis))
-                .signWith(key)
+                .setExpiration(new Date(expiryMillis)));
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+
+    private String signed(JwtBuilder builder) {
+        JwtKeyRing.RingKey active = keyRing.activeKey();
+        return builder
+                .setHeaderParam(JwsHeader.KEY_ID, active.kid())
+                .signWith(active.signingKey(), active.algorithm())
                 .compact();
     }
+
+    /**
+     * Validates signature, expiry and revocation of the given token and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     * @throws TokenRevokedException if the token or its session was revoked
+     */
+    public TokenClaimsDto verify(String token) {
+        TokenClaimsDto cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return notRevoked(cached);
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        TokenClaimsDto verified = new TokenClaimsDto(
+                claims.getSubject(),
+                claims.get("userId", String.class),
+                claims.get("provider", String.class),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                claims.getId(),
+                claims.get(SESSION_ID_CLAIM, String.class)
+        );
+        if (verified.expiresAt() != null) {
+            verifiedTokens.put(token, verified);
+        }
+        return notRevoked(verified);
+    }
+
+    private TokenClaimsDto notRevoked(TokenClaimsDto claims) {
+        if (tokenRevocationList.isRevoked(claims.tokenId(), claims.sessionId())) {
+            throw new TokenRevokedException("Token has been revoked");
+        }
+        return claims;
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+
+    /**
+     * Evicts a cached token at its own expiry, capped at {@code maxTtl}.
+     */
+    private record UntilTokenExpiry(Duration maxTtl) implements Expiry<String, TokenClaimsDto> {
+
+        @Override
+        public long expireAfterCreate(String token, TokenClaimsDto claims, long currentTime) {
+            long untilExpiry = Duration.between(Instant.now(), claims.expiresAt()).toNanos();
+            return Math.max(0, Math.min(untilExpiry, maxTtl.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, TokenClaimsDto claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, TokenClaimsDto claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
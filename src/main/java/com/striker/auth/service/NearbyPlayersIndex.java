@@ -0,0 +1,235 @@
+package com.striker.auth.service;
+
+import com.striker.auth.dto.NearbyPlayerDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Uniform latitude/longitude grid over the locations of active sessions.
+ *
+ * Each located session sits in exactly one cell, and the index is updated
+ * incrementally as sessions are registered, move, or end (see
+ * {@link PresenceRegistry}). A radius query only visits the cells overlapping
+ * the search circle's bounding box. A k-nearest query scans rings of cells
+ * outward from the origin until no unvisited cell can hold a closer player.
+ */
+@Service
+public class NearbyPlayersIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private final double cellDegrees;
+    private final int lonCells;
+    private final double maxRadiusKm;
+    private final Map<UUID, Point> byUser = new ConcurrentHashMap<>();
+    private final Map<Long, Map<UUID, Point>> cells = new ConcurrentHashMap<>();
+
+    public NearbyPlayersIndex(@Value("${striker.nearby.cell-degrees:0.1}") double cellDegrees,
+                              @Value("${striker.nearby.max-radius-km:500}") double maxRadiusKm) {
+        this.cellDegrees = cellDegrees;
+        this.lonCells = (int) Math.ceil(360 / cellDegrees);
+        this.maxRadiusKm = maxRadiusKm;
+    }
+
+    public double getMaxRadiusKm() {
+        return maxRadiusKm;
+    }
+
+    /**
+     * Places or moves the user's session; an unparseable location removes it from the index.
+     */
+    public void update(UUID userId, UUID sessionId, String latitude, String longitude, boolean playing) {
+        Double lat = parse(latitude, 90);
+        Double lon = parse(longitude, 180);
+        byUser.compute(userId, (id, previous) -> {
+            if (previous != null) {
+                removeFromCell(previous);
+            }
+            if (lat == null || lon == null) {
+                return null;
+            }
+            Point point = new Point(userId, sessionId, lat, lon, playing, cellKey(latCell(lat), lonCell(lon)));
+            cells.computeIfAbsent(point.cell, key -> new ConcurrentHashMap<>()).put(userId, point);
+            return point;
+        });
+    }
+
+    /**
+     * Removes the user's entry if it still belongs to {@code sessionId}.
+     */
+    public void remove(UUID userId, UUID sessionId) {
+        byUser.computeIfPresent(userId, (id, previous) -> {
+            if (!previous.sessionId.equals(sessionId)) {
+                return previous;
+            }
+            removeFromCell(previous);
+            return null;
+        });
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    /**
+     * Players within {@code radiusKm} of the origin, nearest first, at most {@code limit}.
+     */
+    public List<NearbyPlayerDto> withinRadius(double latitude, double longitude, double radiusKm,
+                                              boolean availableOnly, UUID excludeUserId, int limit) {
+        double radius = Math.min(radiusKm, maxRadiusKm);
+        int latSpan = (int) Math.ceil(radius / (cellDegrees * KM_PER_DEGREE));
+        int lonSpan = lonSpan(latitude, radius);
+
+        int originLat = latCell(latitude);
+        int originLon = lonCell(longitude);
+        List<NearbyPlayerDto> found = new ArrayList<>();
+        for (int dLat = -latSpan; dLat <= latSpan; dLat++) {
+            for (int dLon = lonFrom(lonSpan); dLon <= lonSpan; dLon++) {
+                collect(originLat + dLat, originLon + dLon, latitude, longitude, radius,
+                        availableOnly, excludeUserId, found::add);
+            }
+        }
+        found.sort(Comparator.comparingDouble(NearbyPlayerDto::distanceKm));
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    /**
+     * The {@code k} players nearest to the origin, nearest first, within the configured maximum radius.
+     */
+    public List<NearbyPlayerDto> nearest(double latitude, double longitude, int k,
+                                         boolean availableOnly, UUID excludeUserId) {
+        int originLat = latCell(latitude);
+        int originLon = lonCell(longitude);
+        int latRings = (int) Math.ceil(maxRadiusKm / (cellDegrees * KM_PER_DEGREE));
+        // Longitude cells narrow with cos(latitude), so more of them are needed east-west
+        int lonRings = lonSpan(latitude, maxRadiusKm);
+        int lonFrom = lonFrom(lonRings);
+        // Narrowest cell width within reach, so a ring's coverage is never overestimated
+        double farthestLat = Math.min(89.9, Math.abs(latitude) + latRings * cellDegrees);
+        double minCellKm = cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLat));
+
+        // Max-heap of the k best candidates so far
+        PriorityQueue<NearbyPlayerDto> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(NearbyPlayerDto::distanceKm).reversed());
+        Consumer<NearbyPlayerDto> keep = candidate -> {
+            if (best.size() < k) {
+                best.add(candidate);
+            } else if (candidate.distanceKm() < best.peek().distanceKm()) {
+                best.poll();
+                best.add(candidate);
+            }
+        };
+        for (int ring = 0; ring <= Math.max(latRings, lonRings); ring++) {
+            for (int dLat = -Math.min(ring, latRings); dLat <= Math.min(ring, latRings); dLat++) {
+                if (Math.abs(dLat) == ring) {
+                    for (int dLon = Math.max(-ring, lonFrom); dLon <= Math.min(ring, lonRings); dLon++) {
+                        collect(originLat + dLat, originLon + dLon, latitude, longitude, maxRadiusKm,
+                                availableOnly, excludeUserId, keep);
+                    }
+                } else if (ring <= lonRings) {
+                    if (-ring >= lonFrom) {
+                        collect(originLat + dLat, originLon - ring, latitude, longitude, maxRadiusKm,
+                                availableOnly, excludeUserId, keep);
+                    }
+                    collect(originLat + dLat, originLon + ring, latitude, longitude, maxRadiusKm,
+                            availableOnly, excludeUserId, keep);
+                }
+            }
+            // Every point closer than ring * minCellKm lies in a ring already scanned
+            if (best.size() == k && best.peek().distanceKm() <= ring * minCellKm) {
+                break;
+            }
+        }
+        List<NearbyPlayerDto> found = new ArrayList<>(best);
+        found.sort(Comparator.comparingDouble(NearbyPlayerDto::distanceKm));
+        return found;
+    }
+
+    private void collect(int latCell, int lonCell, double latitude, double longitude, double radiusKm,
+                         boolean availableOnly, UUID excludeUserId, Consumer<NearbyPlayerDto> out) {
+        if (latCell < latCell(-90) || latCell > latCell(90)) {
+            return;
+        }
+        Map<UUID, Point> cell = cells.get(cellKey(latCell, Math.floorMod(lonCell, lonCells)));
+        if (cell == null) {
+            return;
+        }
+        for (Point point : cell.values()) {
+            if ((availableOnly && point.playing) || point.userId.equals(excludeUserId)) {
+                continue;
+            }
+            double distance = haversineKm(latitude, longitude, point.latitude, point.longitude);
+            if (distance <= radiusKm) {
+                out.accept(new NearbyPlayerDto(point.userId, point.sessionId,
+                        point.latitude, point.longitude, point.playing, distance));
+            }
+        }
+    }
+
+    private void removeFromCell(Point point) {
+        cells.computeIfPresent(point.cell, (key, members) -> {
+            members.remove(point.userId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private int lonSpan(double latitude, double radiusKm) {
+        double cos = Math.cos(Math.toRadians(Math.min(89.9, Math.abs(latitude) + radiusKm / KM_PER_DEGREE)));
+        return Math.min(lonCells / 2, (int) Math.ceil(radiusKm / (cellDegrees * KM_PER_DEGREE * cos)));
+    }
+
+    /**
+     * First longitude offset to scan for a span of {@code lonSpan} cells either
+     * side, so a span that wraps the globe visits no column twice.
+     */
+    private int lonFrom(int lonSpan) {
+        return 2 * lonSpan + 1 > lonCells ? lonSpan - lonCells + 1 : -lonSpan;
+    }
+
+    private int latCell(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), lonCells);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static Double parse(String value, double bound) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            return Double.isFinite(parsed) && Math.abs(parsed) <= bound ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Point(UUID userId, UUID sessionId, double latitude, double longitude,
+                         boolean playing, long cell) {
+    }
+}
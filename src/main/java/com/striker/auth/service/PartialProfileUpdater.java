@@ -0,0 +1,75 @@
+package com.striker.auth.service;
+
+import com.striker.auth.entity.UserProfile;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Partial profile updates in a single statement.
+ *
+ * Only the supplied columns are written, the version is bumped in the same
+ * {@code UPDATE}, and the updated row comes back through {@code RETURNING}, so an
+ * update never loads the profile first. Uniqueness of email and username is left
+ * to the database constraints.
+ */
+@Service
+public class PartialProfileUpdater {
+
+    public static final String USERNAME = "username";
+    public static final String EMAIL = "email";
+    public static final String FULL_NAME = "full_name";
+    public static final String MOBILE = "mobile";
+    public static final String SEX = "sex";
+    public static final String PROFILE_PIC = "profile_pic";
+    public static final String DOB = "dob";
+    public static final String ROLE = "role";
+    public static final String PASSWORD = "password";
+
+    private static final Set<String> COLUMNS = Set.of(USERNAME, EMAIL, FULL_NAME, MOBILE, SEX, PROFILE_PIC, DOB, ROLE, PASSWORD);
+    private static final RowMapper<UserProfile> ROW_MAPPER = new BeanPropertyRowMapper<>(UserProfile.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PartialProfileUpdater(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets {@code changes} (column to value) on the profile and returns the updated
+     * row, or empty if no profile matched {@code userId} and, when given,
+     * {@code expectedVersion}.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException when a unique constraint fires
+     */
+    public Optional<UserProfile> update(UUID userId, Long expectedVersion, Map<String, ?> changes) {
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("No columns to update");
+        }
+        StringBuilder sql = new StringBuilder("UPDATE user_profiles SET ");
+        List<Object> args = new ArrayList<>(changes.size() + 2);
+        for (Map.Entry<String, ?> change : changes.entrySet()) {
+            if (!COLUMNS.contains(change.getKey())) {
+                throw new IllegalArgumentException("Column cannot be updated: " + change.getKey());
+            }
+            sql.append(change.getKey()).append(" = ?, ");
+            args.add(change.getValue());
+        }
+        sql.append("version = version + 1 WHERE user_id = ?");
+        args.add(userId);
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            args.add(expectedVersion);
+        }
+        sql.append(" RETURNING *");
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray()).stream().findFirst();
+    }
+}
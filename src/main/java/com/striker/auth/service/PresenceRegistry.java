@@ -0,0 +1,536 @@
+package com.striker.auth.service;
+
+import com.striker.auth.entity.LoginSession;
+import com.striker.auth.repos.ILoginSessionRepo;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory view of each user's active login session and presence state
+ * (playing flag and location).
+ *
+ * Entries are spread over lock-striped shards by userId, so updates for
+ * different users rarely contend. Presence changes only mark an entry dirty;
+ * {@link #flush()} writes dirty entries back to {@code login_session} in JDBC
+ * batches. The registry is rebuilt from the active rows at startup, and keeps
+ * the {@link NearbyPlayersIndex} in step with every change.
+ *
+ * Each active session also sits in a {@link TimingWheel}. Heartbeats and
+ * presence updates push back its deadline and are recorded in
+ * {@code last_heartbeat} with the next flush, so every node sees them. When a
+ * deadline passes, the session is marked inactive only if
+ * {@code last_heartbeat} is older than {@code striker.sessions.idle-timeout};
+ * otherwise a heartbeat reached another node and the session is rescheduled
+ * from the stored value. An expired session loses its refresh tokens and, through
+ * the {@link TokenRevocationList}, its access tokens. No periodic table sweep is
+ * needed.
+ */
+@Slf4j
+@Service
+public class PresenceRegistry implements ApplicationRunner {
+
+    private static final String UPDATE_SQL = "UPDATE login_session "
+            + "SET is_playing = ?, longitude = ?, latitude = ? "
+            + "WHERE session_id = ? AND is_active";
+    private static final String HEARTBEAT_SQL = "UPDATE login_session "
+            + "SET last_heartbeat = ? "
+            + "WHERE session_id = ? AND is_active";
+    private static final String EXPIRE_SQL = "UPDATE login_session "
+            + "SET is_active = false, logged_out = ? "
+            + "WHERE session_id = ? AND is_active AND COALESCE(last_heartbeat, login_time) < ?";
+    private static final String REVOKE_REFRESH_TOKENS_SQL = "UPDATE refresh_tokens "
+            + "SET revoked = true "
+            + "WHERE session_id = ? AND NOT revoked";
+    private static final String LAST_HEARTBEAT_SQL = "SELECT session_id, COALESCE(last_heartbeat, login_time) "
+            + "FROM login_session WHERE session_id IN (:sessionIds) AND is_active";
+
+    private final ILoginSessionRepo loginSessionRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final NearbyPlayersIndex nearbyPlayersIndex;
+    private final TokenRevocationList tokenRevocationList;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTx;
+    private final TransactionTemplate writeTx;
+    private final int batchSize;
+    private final Shard[] shards;
+    private final int shardMask;
+    private final Duration idleTimeout;
+    private final TimingWheel<UUID, UUID> expiryWheel;
+    private final Map<UUID, LocalDateTime> pendingHeartbeats = new ConcurrentHashMap<>();
+    private final Queue<Map.Entry<UUID, UUID>> failedExpiries = new ConcurrentLinkedQueue<>();
+    private final Queue<UUID> failedRevocations = new ConcurrentLinkedQueue<>();
+
+    public PresenceRegistry(ILoginSessionRepo loginSessionRepo,
+                            JdbcTemplate jdbcTemplate,
+                            NearbyPlayersIndex nearbyPlayersIndex,
+                            TokenRevocationList tokenRevocationList,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${striker.presence.shards:64}") int shardCount,
+                            @Value("${striker.presence.batch-size:500}") int batchSize,
+                            @Value("${striker.sessions.idle-timeout:PT2M}") Duration idleTimeout,
+                            @Value("${striker.sessions.expiry-tick:PT1S}") Duration expiryTick) {
+        this.loginSessionRepo = loginSessionRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.nearbyPlayersIndex = nearbyPlayersIndex;
+        this.tokenRevocationList = tokenRevocationList;
+        this.entityManager = entityManager;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = size - 1;
+        this.idleTimeout = idleTimeout;
+        this.expiryWheel = new TimingWheel<>(expiryTick.toMillis(), System.currentTimeMillis());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int[] loaded = {0};
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<LoginSession> sessions = loginSessionRepo.streamActive()) {
+                sessions.forEach(session -> {
+                    register(session, false);
+                    entityManager.detach(session);
+                    loaded[0]++;
+                });
+            }
+        });
+        log.info("Presence registry rebuilt from {} active sessions", loaded[0]);
+    }
+
+    /**
+     * Tracks a freshly persisted session as the user's current one, unless a newer
+     * session is already registered.
+     */
+    public void register(LoginSession session) {
+        register(session, true);
+    }
+
+    private void register(LoginSession session, boolean overwrite) {
+        // Every active session expires when idle, even one superseded by a newer login
+        expiryWheel.schedule(session.getSessionId(), session.getUserId(),
+                System.currentTimeMillis() + idleTimeout.toMillis());
+        Presence presence = new Presence(session.getSessionId(), session.getUserId(), session.getLoginTime(),
+                session.isPlaying(), session.getLongitude(), session.getLatitude());
+        Shard shard = shardFor(session.getUserId());
+        shard.lock.writeLock().lock();
+        try {
+            Presence current = shard.entries.get(session.getUserId());
+            if (!overwrite && current != null && isNewer(current, presence)) {
+                return;
+            }
+            shard.entries.put(session.getUserId(), presence);
+            shard.dirty.remove(session.getUserId());
+            nearbyPlayersIndex.update(presence.userId, presence.sessionId,
+                    presence.latitude, presence.longitude, presence.playing);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the user's entry if it still belongs to {@code sessionId}.
+     */
+    public void remove(UUID userId, UUID sessionId) {
+        expiryWheel.cancel(sessionId);
+        pendingHeartbeats.remove(sessionId);
+        Shard shard = shardFor(userId);
+        shard.lock.writeLock().lock();
+        try {
+            Presence current = shard.entries.get(userId);
+            if (current != null && current.sessionId.equals(sessionId)) {
+                shard.entries.remove(userId);
+                shard.dirty.remove(userId);
+                nearbyPlayersIndex.remove(userId, sessionId);
+            }
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Snapshot of the user's active session, detached from the registry. A user
+     * this node does not track, such as one who logged in on another node, has
+     * their newest active session loaded and registered first.
+     */
+    public Optional<LoginSession> get(UUID userId) {
+        Optional<LoginSession> session = find(userId);
+        if (session.isEmpty() && load(userId)) {
+            session = find(userId);
+        }
+        return session;
+    }
+
+    /**
+     * Applies a presence change in memory; null arguments leave the field unchanged.
+     * The session is loaded first if this node does not track it, as in {@link #get}.
+     *
+     * @return the updated snapshot, or empty if the user has no active session
+     */
+    public Optional<LoginSession> update(UUID userId, Boolean playing, String longitude, String latitude) {
+        Optional<LoginSession> session = apply(userId, playing, longitude, latitude);
+        if (session.isEmpty() && load(userId)) {
+            session = apply(userId, playing, longitude, latitude);
+        }
+        return session;
+    }
+
+    private Optional<LoginSession> find(UUID userId) {
+        Shard shard = shardFor(userId);
+        shard.lock.readLock().lock();
+        try {
+            Presence presence = shard.entries.get(userId);
+            return Optional.ofNullable(presence).map(Presence::toSession);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    private Optional<LoginSession> apply(UUID userId, Boolean playing, String longitude, String latitude) {
+        Shard shard = shardFor(userId);
+        shard.lock.writeLock().lock();
+        try {
+            Presence presence = shard.entries.get(userId);
+            if (presence == null) {
+                return Optional.empty();
+            }
+            if (playing != null) {
+                presence.playing = playing;
+            }
+            if (longitude != null) {
+                presence.longitude = longitude;
+            }
+            if (latitude != null) {
+                presence.latitude = latitude;
+            }
+            shard.dirty.add(userId);
+            touch(presence.sessionId);
+            nearbyPlayersIndex.update(userId, presence.sessionId,
+                    presence.latitude, presence.longitude, presence.playing);
+            return Optional.of(presence.toSession());
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records a heartbeat, pushing back the session's idle expiry. A session this
+     * node does not track, such as one created on another node, is loaded and
+     * registered first.
+     *
+     * @return false if the session is not active
+     */
+    public boolean heartbeat(UUID sessionId) {
+        if (touch(sessionId)) {
+            return true;
+        }
+        Optional<LoginSession> session = loginSessionRepo.findById(sessionId).filter(LoginSession::isActive);
+        if (session.isEmpty()) {
+            return false;
+        }
+        register(session.get(), false);
+        return touch(sessionId);
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.readLock().lock();
+            try {
+                size += shard.entries.size();
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes dirty presence and the heartbeats recorded since the last flush.
+     * The flush interval should stay well below the idle timeout, so other nodes
+     * see a heartbeat before they would expire its session.
+     */
+    @Scheduled(fixedDelayString = "${striker.presence.flush-interval:PT5S}")
+    public void flush() {
+        flushHeartbeats();
+
+        List<Presence> drained = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.writeLock().lock();
+            try {
+                for (UUID userId : shard.dirty) {
+                    Presence presence = shard.entries.get(userId);
+                    if (presence != null) {
+                        drained.add(presence.copy());
+                    }
+                }
+                shard.dirty.clear();
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<Presence> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                write(batch);
+            } catch (Exception e) {
+                log.error("Presence flush of {} sessions failed, marking them dirty again", batch.size(), e);
+                batch.forEach(this::markDirty);
+            }
+        }
+        log.debug("Flushed presence of {} sessions", drained.size());
+    }
+
+    /**
+     * Turns the expiry wheel and, in JDBC batches, marks the due sessions inactive
+     * unless {@code last_heartbeat} shows a heartbeat within the idle timeout.
+     * Those are rescheduled from the stored heartbeat instead. The refresh tokens
+     * of expired sessions are revoked in the same transaction, their access tokens
+     * once it commits.
+     */
+    @Scheduled(fixedDelayString = "${striker.sessions.expiry-tick:PT1S}")
+    public void expireIdleSessions() {
+        for (UUID sessionId; (sessionId = failedRevocations.poll()) != null; ) {
+            revokeAccessTokens(sessionId);
+        }
+
+        List<Map.Entry<UUID, UUID>> due = new ArrayList<>();
+        for (Map.Entry<UUID, UUID> entry; (entry = failedExpiries.poll()) != null; ) {
+            due.add(entry);
+        }
+        expiryWheel.advance(System.currentTimeMillis(), (sessionId, userId) -> due.add(Map.entry(sessionId, userId)));
+        if (due.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime idleBefore = now.minus(idleTimeout);
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Map.Entry<UUID, UUID>> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                List<Map.Entry<UUID, UUID>> alive = new ArrayList<>();
+                List<Map.Entry<UUID, UUID>> idle = writeTx.execute(status -> {
+                    int[][] counts = jdbcTemplate.batchUpdate(EXPIRE_SQL, batch, batch.size(), (ps, entry) -> {
+                        ps.setObject(1, now);
+                        ps.setObject(2, entry.getKey());
+                        ps.setObject(3, idleBefore);
+                    });
+                    List<Map.Entry<UUID, UUID>> matched = new ArrayList<>();
+                    for (int i = 0; i < batch.size(); i++) {
+                        (counts[0][i] == 1 ? matched : alive).add(batch.get(i));
+                    }
+                    if (!matched.isEmpty()) {
+                        jdbcTemplate.batchUpdate(REVOKE_REFRESH_TOKENS_SQL, matched, matched.size(),
+                                (ps, entry) -> ps.setObject(1, entry.getKey()));
+                    }
+                    return matched;
+                });
+                idle.forEach(entry -> {
+                    remove(entry.getValue(), entry.getKey());
+                    revokeAccessTokens(entry.getKey());
+                });
+                expired += idle.size();
+                if (!alive.isEmpty()) {
+                    reschedule(alive);
+                }
+            } catch (Exception e) {
+                log.error("Expiring {} idle sessions failed, retrying on next tick", batch.size(), e);
+                failedExpiries.addAll(batch);
+            }
+        }
+        log.debug("Expired {} idle sessions, {} kept alive elsewhere", expired, due.size() - expired);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean load(UUID userId) {
+        Optional<LoginSession> session = loginSessionRepo.findFirstByUserIdAndIsActiveTrueOrderByLoginTimeDesc(userId);
+        session.ifPresent(active -> register(active, false));
+        return session.isPresent();
+    }
+
+    private void revokeAccessTokens(UUID sessionId) {
+        try {
+            tokenRevocationList.revokeSession(sessionId);
+        } catch (Exception e) {
+            log.error("Revoking access tokens of expired session {} failed, retrying on next tick", sessionId, e);
+            failedRevocations.add(sessionId);
+        }
+    }
+
+    private boolean touch(UUID sessionId) {
+        if (!expiryWheel.touch(sessionId, System.currentTimeMillis() + idleTimeout.toMillis())) {
+            return false;
+        }
+        pendingHeartbeats.put(sessionId, LocalDateTime.now());
+        return true;
+    }
+
+    private void flushHeartbeats() {
+        List<Map.Entry<UUID, LocalDateTime>> drained = new ArrayList<>();
+        for (Map.Entry<UUID, LocalDateTime> entry : pendingHeartbeats.entrySet()) {
+            // Keep a heartbeat that lands while draining for the next flush
+            if (pendingHeartbeats.remove(entry.getKey(), entry.getValue())) {
+                drained.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<Map.Entry<UUID, LocalDateTime>> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                jdbcTemplate.batchUpdate(HEARTBEAT_SQL, batch, batch.size(), (ps, entry) -> {
+                    ps.setObject(1, entry.getValue());
+                    ps.setObject(2, entry.getKey());
+                });
+            } catch (Exception e) {
+                log.error("Heartbeat flush of {} sessions failed, retrying on next flush", batch.size(), e);
+                batch.forEach(entry -> pendingHeartbeats.putIfAbsent(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Puts sessions that were heartbeated on another node back on the wheel at
+     * their stored heartbeat plus the idle timeout, and drops those that are no
+     * longer active.
+     */
+    private void reschedule(List<Map.Entry<UUID, UUID>> alive) {
+        Map<UUID, LocalDateTime> lastHeartbeats = new HashMap<>();
+        namedJdbcTemplate.query(LAST_HEARTBEAT_SQL,
+                Map.of("sessionIds", alive.stream().map(Map.Entry::getKey).toList()),
+                rs -> {
+                    lastHeartbeats.put(rs.getObject(1, UUID.class), rs.getObject(2, LocalDateTime.class));
+                });
+        for (Map.Entry<UUID, UUID> entry : alive) {
+            LocalDateTime lastHeartbeat = lastHeartbeats.get(entry.getKey());
+            if (lastHeartbeat == null) {
+                remove(entry.getValue(), entry.getKey());
+            } else if (!expiryWheel.contains(entry.getKey())) {
+                expiryWheel.schedule(entry.getKey(), entry.getValue(), lastHeartbeat.plus(idleTimeout)
+                        .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+    }
+
+    private void write(List<Presence> batch) {
+        jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, presence) -> {
+            ps.setBoolean(1, presence.playing);
+            ps.setString(2, presence.longitude);
+            ps.setString(3, presence.latitude);
+            ps.setObject(4, presence.sessionId);
+        });
+    }
+
+    private void markDirty(Presence flushed) {
+        Shard shard = shardFor(flushed.userId);
+        shard.lock.writeLock().lock();
+        try {
+            Presence current = shard.entries.get(flushed.userId);
+            if (current != null && current.sessionId.equals(flushed.sessionId)) {
+                shard.dirty.add(flushed.userId);
+            }
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private Shard shardFor(UUID userId) {
+        int h = userId.hashCode();
+        return shards[(h ^ (h >>> 16)) & shardMask];
+    }
+
+    private static boolean isNewer(Presence a, Presence b) {
+        return a.loginTime != null && b.loginTime != null && a.loginTime.isAfter(b.loginTime);
+    }
+
+    private static final class Shard {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<UUID, Presence> entries = new HashMap<>();
+        final Set<UUID> dirty = new HashSet<>();
+    }
+
+    /**
+     * Mutable presence state, guarded by its shard's lock.
+     */
+    private static final class Presence {
+        final UUID sessionId;
+        final UUID userId;
+        final LocalDateTime loginTime;
+        boolean playing;
+        String longitude;
+        String latitude;
+
+        Presence(UUID sessionId, UUID userId, LocalDateTime loginTime,
+                 boolean playing, String longitude, String latitude) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.loginTime = loginTime;
+            this.playing = playing;
+            this.longitude = longitude;
+            this.latitude = latitude;
+        }
+
+        Presence copy() {
+            return new Presence(sessionId, userId, loginTime, playing, longitude, latitude);
+        }
+
+        LoginSession toSession() {
+            LoginSession session = new LoginSession();
+            session.setSessionId(sessionId);
+            session.setUserId(userId);
+            session.setLoginTime(loginTime);
+            session.setActive(true);
+            session.setPlaying(playing);
+            session.setLongitude(longitude);
+            session.setLatitude(latitude);
+            return session;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.striker.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.striker.auth.dto.UserProfileViewDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * In-process map of userId to the ETag of the profile last served, so a
+ * conditional GET with a matching {@code If-None-Match} is answered with 304
+ * without reading the row or serializing it.
+ *
+ * Every profile write on this node drops the user's entry. A read takes a
+ * {@link #lease(UUID)} before loading the row and only {@link #store stores} its
+ * ETag if no write dropped the lease meanwhile, so an entry never outlives the
+ * write that made it stale. Reads served by a replica store nothing, since the
+ * replica can lag a write that already dropped the entry. Writes on other nodes
+ * are not seen: entries expire after {@code striker.profile-etag.ttl}, which
+ * bounds how long a client can be told a profile edited elsewhere is unchanged.
+ */
+@Service
+public class ProfileETagCache {
+
+    private final Cache<UUID, Entry> entries;
+
+    public ProfileETagCache(MeterRegistry meterRegistry,
+                            @Value("${striker.profile-etag.max-size:100000}") long maxSize,
+                            @Value("${striker.profile-etag.ttl:PT30S}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "profile-etag");
+    }
+
+    /**
+     * ETag of the user's profile, or null if this node has none.
+     */
+    public String get(UUID userId) {
+        Entry entry = entries.getIfPresent(userId);
+        return entry != null ? entry.etag() : null;
+    }
+
+    /**
+     * Call before loading the profile and pass the result to {@link #store}.
+     */
+    public Object lease(UUID userId) {
+        return entries.asMap().computeIfAbsent(userId, id -> new Entry(null));
+    }
+
+    /**
+     * Remembers the ETag of {@code profile} unless the lease was dropped by a write.
+     */
+    public String store(Object lease, UserProfileViewDto profile) {
+        String etag = etagOf(profile);
+        if (lease instanceof Entry entry && !etag.equals(entry.etag())) {
+            entries.asMap().replace(profile.userId(), entry, new Entry(etag));
+        }
+        return etag;
+    }
+
+    public void invalidate(UUID userId) {
+        entries.invalidate(userId);
+    }
+
+    /**
+     * Weak ETag: the version covers edits, the hash covers the write-behind
+     * columns (picture, last login) that do not bump it. Weak because the JSON,
+     * CBOR and Smile bodies of one profile share it.
+     */
+    public static String etagOf(UserProfileViewDto profile) {
+        int hash = Objects.hash(profile.userId(), profile.username(), profile.fullName(), profile.mobile(),
+                profile.sex(), profile.profilePic(), profile.email(), profile.dob(), profile.lastLogin(),
+                profile.role(), profile.status());
+        return "W/\"" + profile.version() + "-" + Integer.toHexString(hash) + "\"";
+    }
+
+    /**
+     * A stored ETag, or a lease ({@code etag} null) while a read is loading the row.
+     * Compared by identity so a lease is only ever replaced by the read that took it.
+     */
+    private static final class Entry {
+
+        private final String etag;
+
+        private Entry(String etag) {
+            this.etag = etag;
+        }
+
+        private String etag() {
+            return etag;
+        }
+    }
+}
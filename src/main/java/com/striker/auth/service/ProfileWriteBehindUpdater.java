@@ -0,0 +1,195 @@
+package com.striker.auth.service;
+
+import com.striker.auth.dto.UserProfileSummaryDto;
+import com.striker.auth.entity.UserProfile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for hot, low-value profile columns ({@code last_login},
+ * {@code profile_pic}).
+ *
+ * Updates are coalesced per user in memory, so a user who logs in five times
+ * between flushes costs one row update. The buffer is flushed on a schedule as a
+ * single JDBC batch and once more on shutdown. When the buffer is full, new users
+ * are written through immediately instead of growing it; callers that must not
+ * block, such as the reactive login pipeline, use the {@code offer} methods,
+ * which drop the update instead. Reads can overlay
+ * pending values with {@link #applyPending(UserProfile)}, so every update drops the
+ * user's cached profile ETag as soon as it is buffered and again once it is
+ * written; an update stays pending until its batch commits. Code that writes
+ * {@code profile_pic} directly calls {@link #supersedeProfilePic} so an older
+ * buffered picture cannot be overlaid on reads or flushed over the new one.
+ */
+@Slf4j
+@Service
+public class ProfileWriteBehindUpdater {
+
+    private static final String UPDATE_SQL = "UPDATE user_profiles "
+            + "SET last_login = COALESCE(?, last_login), profile_pic = COALESCE(?, profile_pic) "
+            + "WHERE user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProfileETagCache profileETagCache;
+    private final int maxPending;
+    private final int batchSize;
+    private final Map<UUID, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+    public ProfileWriteBehindUpdater(JdbcTemplate jdbcTemplate,
+                                     ProfileETagCache profileETagCache,
+                                     @Value("${striker.write-behind.max-pending:50000}") int maxPending,
+                                     @Value("${striker.write-behind.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.profileETagCache = profileETagCache;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+    }
+
+    public void recordLogin(UUID userId) {
+        enqueue(userId, new PendingUpdate(LocalDateTime.now().toString(), null));
+    }
+
+    public void updateProfilePic(UUID userId, String profilePic) {
+        enqueue(userId, new PendingUpdate(null, profilePic));
+    }
+
+    /**
+     * Like {@link #recordLogin} but never touches the database: when the buffer is
+     * full and holds nothing for the user, the update is dropped. The next login
+     * records it again.
+     *
+     * @return false if the update was dropped
+     */
+    public boolean offerLogin(UUID userId) {
+        return offer(userId, new PendingUpdate(LocalDateTime.now().toString(), null));
+    }
+
+    /**
+     * Like {@link #updateProfilePic} but never touches the database; see {@link #offerLogin}.
+     * A dropped picture is sent again by the provider on the next login.
+     *
+     * @return false if the update was dropped
+     */
+    public boolean offerProfilePic(UUID userId, String profilePic) {
+        return offer(userId, new PendingUpdate(null, profilePic));
+    }
+
+    /**
+     * Call after {@code profile_pic} was written directly. A pending picture is older
+     * than that write: it is replaced by {@code profilePic}, which the next flush
+     * writes again and so also undoes a flush that was in progress, or dropped if
+     * the direct write left the picture empty.
+     */
+    public void supersedeProfilePic(UUID userId, String profilePic) {
+        if (profilePic != null) {
+            enqueue(userId, new PendingUpdate(null, profilePic));
+            return;
+        }
+        pending.computeIfPresent(userId, (id, update) ->
+                update.lastLogin() != null ? new PendingUpdate(update.lastLogin(), null) : null);
+        profileETagCache.invalidate(userId);
+    }
+
+    /**
+     * Copies not-yet-flushed values onto a freshly loaded profile.
+     */
+    public UserProfile applyPending(UserProfile profile) {
+        PendingUpdate update = pending.get(profile.getUserId());
+        if (update != null) {
+            if (update.lastLogin() != null) {
+                profile.setLastLogin(update.lastLogin());
+            }
+            if (update.profilePic() != null) {
+                profile.setProfilePic(update.profilePic());
+            }
+        }
+        return profile;
+    }
+
+    public UserProfileSummaryDto applyPending(UserProfileSummaryDto summary) {
+        PendingUpdate update = pending.get(summary.userId());
+        if (update == null || update.profilePic() == null) {
+            return summary;
+        }
+        return new UserProfileSummaryDto(summary.userId(), summary.username(), summary.fullName(),
+                update.profilePic(), summary.status());
+    }
+
+    @Scheduled(fixedDelayString = "${striker.write-behind.flush-interval:PT2S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Entries stay pending until their batch commits, so reads keep overlaying them
+        List<Map.Entry<UUID, PendingUpdate>> drained = pending.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+
+        int written = 0;
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<Map.Entry<UUID, PendingUpdate>> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                write(batch);
+            } catch (Exception e) {
+                log.error("Write-behind flush of {} profile updates failed, retrying on the next flush", batch.size(), e);
+                continue;
+            }
+            // Anything merged in since the snapshot is newer and stays for the next flush
+            batch.forEach(entry -> {
+                pending.remove(entry.getKey(), entry.getValue());
+                profileETagCache.invalidate(entry.getKey());
+            });
+            written += batch.size();
+        }
+        log.debug("Flushed {} coalesced profile updates", written);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} pending profile updates before shutdown", pending.size());
+        flush();
+    }
+
+    private void enqueue(UUID userId, PendingUpdate update) {
+        if (!offer(userId, update)) {
+            write(List.of(Map.entry(userId, update)));
+            profileETagCache.invalidate(userId);
+        }
+    }
+
+    private boolean offer(UUID userId, PendingUpdate update) {
+        if (pending.size() >= maxPending && !pending.containsKey(userId)) {
+            return false;
+        }
+        pending.merge(userId, update, PendingUpdate::merge);
+        profileETagCache.invalidate(userId);
+        return true;
+    }
+
+    private void write(List<Map.Entry<UUID, PendingUpdate>> batch) {
+        jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+            ps.setString(1, entry.getValue().lastLogin());
+            ps.setString(2, entry.getValue().profilePic());
+            ps.setObject(3, entry.getKey());
+        });
+    }
+
+    private record PendingUpdate(String lastLogin, String profilePic) {
+
+        PendingUpdate merge(PendingUpdate newer) {
+            return new PendingUpdate(
+                    newer.lastLogin != null ? newer.lastLogin : lastLogin,
+                    newer.profilePic != null ? newer.profilePic : profilePic);
+        }
+    }
+}
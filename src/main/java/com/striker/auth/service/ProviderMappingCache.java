@@ -0,0 +1,56 @@
+package com.striker.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-process cache of (auth provider, provider id) to userId.
+ *
+ * A provider mapping never changes once created, so returning players can skip
+ * the {@code user_providers} lookup entirely. Only existing mappings are cached;
+ * a miss always falls through to the database so mappings created on other nodes
+ * are picked up. Hit/miss/eviction counts are published as {@code cache.*} metrics
+ * under {@code cache=provider-mapping}.
+ */
+@Service
+public class ProviderMappingCache {
+
+    private final Cache<ProviderKey, UUID> userIdsByProvider;
+
+    public ProviderMappingCache(MeterRegistry meterRegistry,
+                                @Value("${striker.provider-cache.max-size:100000}") long maxSize,
+                                @Value("${striker.provider-cache.ttl:PT1H}") Duration ttl) {
+        this.userIdsByProvider = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userIdsByProvider, "provider-mapping");
+    }
+
+    public Optional<UUID> findUserId(String authProvider, String providerId) {
+        return Optional.ofNullable(userIdsByProvider.getIfPresent(new ProviderKey(authProvider, providerId)));
+    }
+
+    public void put(String authProvider, String providerId, UUID userId) {
+        userIdsByProvider.put(new ProviderKey(authProvider, providerId), userId);
+    }
+
+    /**
+     * Drops one mapping, e.g. after its profile was deleted.
+     */
+    public void evict(String authProvider, String providerId) {
+        userIdsByProvider.invalidate(new ProviderKey(authProvider, providerId));
+    }
+
+    private record ProviderKey(String authProvider, String providerId) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.striker.auth.service;
+
+import com.striker.auth.entity.RefreshToken;
+import com.striker.auth.repos.IRefreshTokenRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and tracks opaque refresh tokens. Each token belongs to a login session;
+ * rotating a token marks it used, and presenting a used token again revokes every
+ * token of that session.
+ */
+@Service
+public class RefreshTokenStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final IRefreshTokenRepo refreshTokenRepo;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenStore(IRefreshTokenRepo refreshTokenRepo,
+                             @Value("${striker.refresh-token.ttl:P30D}") Duration ttl) {
+        this.refreshTokenRepo = refreshTokenRepo;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Creates a refresh token for the session and returns its raw value.
+     */
+    public String issue(UUID userId, String provider, UUID sessionId) {
+        Issued issued = create(userId, provider, sessionId);
+        refreshTokenRepo.save(issued.refreshToken());
+        return issued.token();
+    }
+
+    /**
+     * Builds a refresh token for the session without storing it, for callers that
+     * write it through their own connection.
+     */
+    public Issued create(UUID userId, String provider, UUID sessionId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setSessionId(sessionId);
+        refreshToken.setUserId(userId);
+        refreshToken.setProvider(provider);
+        refreshToken.setIssuedAt(now);
+        refreshToken.setExpiresAt(now.plus(ttl));
+        return new Issued(token, refreshToken);
+    }
+
+    public Optional<RefreshToken> find(String token) {
+        return refreshTokenRepo.findByTokenHash(hash(token));
+    }
+
+    /**
+     * Claims the token for a single rotation; false if it was already used or revoked.
+     */
+    public boolean markUsed(RefreshToken refreshToken) {
+        return refreshTokenRepo.markUsed(refreshToken.getId(), LocalDateTime.now()) == 1;
+    }
+
+    public void revokeSession(UUID sessionId) {
+        refreshTokenRepo.revokeBySessionId(sessionId);
+    }
+
+    public void revokeUser(UUID userId) {
+        refreshTokenRepo.revokeByUserId(userId);
+    }
+
+    /**
+     * Raw token for the client and the row that stores its hash.
+     */
+    public record Issued(String token, RefreshToken refreshToken) {
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.striker.auth.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Hierarchical timing wheel with lazy rescheduling.
+ *
+ * Level 0 has {@value #SLOTS} slots of one tick each; every level above covers
+ * {@value #SLOTS} times the span of the one below. An entry is placed in the
+ * lowest level whose span reaches its deadline and cascades down as the wheel
+ * turns.
+ *
+ * {@link #touch} only moves the entry's deadline, so a heartbeat is O(1) and
+ * never touches a slot. When a slot comes due, each entry is checked against its
+ * current deadline and either expires or is re-inserted further out.
+ *
+ * @param <K> key used to touch or cancel an entry
+ * @param <V> payload handed back on expiry
+ */
+public class TimingWheel<K, V> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Entry<K, V>>[][] wheel = new ArrayDeque[LEVELS][SLOTS];
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces the entry for {@code key}.
+     */
+    public void schedule(K key, V value, long deadlineMillis) {
+        Entry<K, V> entry = new Entry<>(key, value, deadlineMillis);
+        entries.put(key, entry);
+        synchronized (this) {
+            insert(entry, currentTick + 1);
+        }
+    }
+
+    /**
+     * Pushes back the deadline of an existing entry.
+     *
+     * @return false if {@code key} is not scheduled
+     */
+    public boolean touch(K key, long deadlineMillis) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.deadlineMillis = deadlineMillis;
+        return true;
+    }
+
+    public void cancel(K key) {
+        entries.remove(key);
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Turns the wheel up to {@code nowMillis}, handing every entry whose deadline
+     * has passed to {@code onExpired}. Expired entries are removed before the
+     * callbacks run, outside the wheel's lock.
+     */
+    public void advance(long nowMillis, BiConsumer<K, V> onExpired) {
+        long targetTick = nowMillis / tickMillis;
+        List<Entry<K, V>> expired = new ArrayList<>();
+        synchronized (this) {
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade(currentTick);
+                ArrayDeque<Entry<K, V>> slot = wheel[0][(int) (currentTick & SLOT_MASK)];
+                List<Entry<K, V>> due = new ArrayList<>(slot);
+                slot.clear();
+                for (Entry<K, V> entry : due) {
+                    if (entries.get(entry.key) != entry) {
+                        continue;
+                    }
+                    if (ceilTick(entry.deadlineMillis) > currentTick) {
+                        // Touched since it was placed; push it further out
+                        insert(entry, currentTick + 1);
+                    } else if (entries.remove(entry.key, entry)) {
+                        expired.add(entry);
+                    }
+                }
+            }
+        }
+        for (Entry<K, V> entry : expired) {
+            onExpired.accept(entry.key, entry.value);
+        }
+    }
+
+    /**
+     * On a level boundary, redistributes the next slot of each higher level into
+     * the levels below.
+     */
+    private void cascade(long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            ArrayDeque<Entry<K, V>> slot = wheel[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            List<Entry<K, V>> moving = new ArrayList<>(slot);
+            slot.clear();
+            for (Entry<K, V> entry : moving) {
+                if (entries.get(entry.key) == entry) {
+                    insert(entry, tick);
+                }
+            }
+        }
+    }
+
+    private void insert(Entry<K, V> entry, long earliestTick) {
+        long deadlineTick = Math.max(ceilTick(entry.deadlineMillis), earliestTick);
+        long delta = deadlineTick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1))) || level == LEVELS - 1) {
+                long tickAtLevel = Math.min(deadlineTick, currentTick + (1L << (SLOT_BITS * (level + 1))) - 1);
+                wheel[level][(int) ((tickAtLevel >>> (SLOT_BITS * level)) & SLOT_MASK)].add(entry);
+                return;
+            }
+        }
+    }
+
+    private long ceilTick(long millis) {
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        volatile long deadlineMillis;
+
+        Entry(K key, V value, long deadlineMillis) {
+            this.key = key;
+            this.value = value;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.striker.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.striker.auth.entity.RevokedToken;
+import com.striker.auth.id.IdGenerator;
+import com.striker.auth.repos.IRevokedTokenRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Revoked access tokens ({@code jti}) and sessions ({@code sid}).
+ *
+ * Each node keeps the revocations in memory until the tokens they cover expire,
+ * behind a {@link BloomFilter}: the common "not revoked" answer costs a filter
+ * check of the token id and the session id and never touches the map.
+ * Revocations are written to the {@code revoked_tokens} table and every node polls
+ * it for rows newer than the last it saw. The poll re-reads a short overlap so
+ * rows committed slightly out of order are not missed.
+ */
+@Slf4j
+@Service
+public class TokenRevocationList implements ApplicationRunner {
+
+    private final IRevokedTokenRepo revokedTokenRepo;
+    private final IdGenerator idGenerator;
+    private final Duration accessTokenTtl;
+    private final Duration pollOverlap;
+    private final int bloomBits;
+    private final int bloomHashes;
+    private final Cache<String, Instant> revoked;
+    private final Object bloomLock = new Object();
+
+    private volatile BloomFilter bloom;
+    private volatile Instant lastSeen;
+
+    public TokenRevocationList(IRevokedTokenRepo revokedTokenRepo,
+                               IdGenerator idGenerator,
+                               @Value("${striker.jwt.access-token-ttl:PT15M}") Duration accessTokenTtl,
+                               @Value("${striker.revocation.poll-overlap:PT10S}") Duration pollOverlap,
+                               @Value("${striker.revocation.bloom.bits:1048576}") int bloomBits,
+                               @Value("${striker.revocation.bloom.hashes:4}") int bloomHashes) {
+        this.revokedTokenRepo = revokedTokenRepo;
+        this.idGenerator = idGenerator;
+        this.accessTokenTtl = accessTokenTtl;
+        this.pollOverlap = pollOverlap;
+        this.bloomBits = bloomBits;
+        this.bloomHashes = bloomHashes;
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(new UntilExpiry())
+                .build();
+        this.bloom = new BloomFilter(bloomBits, bloomHashes);
+        this.lastSeen = Instant.now().minus(accessTokenTtl);
+    }
+
+    /**
+     * Loads revocations that still cover live tokens.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        List<RevokedToken> live = revokedTokenRepo.findByExpiresAtAfter(Instant.now());
+        live.forEach(this::apply);
+        log.info("Loaded {} token revocations", live.size());
+    }
+
+    /**
+     * True if the token or its whole session was revoked. Either id may be null.
+     */
+    public boolean isRevoked(String tokenId, String sessionId) {
+        BloomFilter filter = bloom;
+        return (tokenId != null && filter.mightContain(tokenId) && revoked.getIfPresent(tokenId) != null)
+                || (sessionId != null && filter.mightContain(sessionId) && revoked.getIfPresent(sessionId) != null);
+    }
+
+    /**
+     * Revokes one access token until it expires on its own.
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        revoke(tokenId, RevokedToken.TOKEN, expiresAt);
+    }
+
+    /**
+     * Revokes every access token issued for the session. Tokens issued before now
+     * expire within one access-token lifetime, so that is how long the entry lives.
+     */
+    public void revokeSession(UUID sessionId) {
+        revoke(sessionId.toString(), RevokedToken.SESSION, Instant.now().plus(accessTokenTtl));
+    }
+
+    private void revoke(String revokedId, String kind, Instant expiresAt) {
+        add(revokedId, expiresAt);
+        revokedTokenRepo.insert(idGenerator.next(), revokedId, kind, expiresAt);
+    }
+
+    /**
+     * Picks up revocations made on other nodes.
+     */
+    @Scheduled(fixedDelayString = "${striker.revocation.poll-interval:PT2S}")
+    public void poll() {
+        List<RevokedToken> rows = revokedTokenRepo.findByRevokedAtAfterOrderByRevokedAt(lastSeen.minus(pollOverlap));
+        for (RevokedToken row : rows) {
+            apply(row);
+        }
+        if (!rows.isEmpty()) {
+            log.debug("Polled {} token revocations", rows.size());
+        }
+    }
+
+    /**
+     * Drops expired rows and rebuilds the filter from the live entries, so bits set
+     * by expired revocations stop costing map lookups.
+     */
+    @Scheduled(fixedDelayString = "${striker.revocation.purge-interval:PT10M}")
+    public void purge() {
+        int deleted = revokedTokenRepo.deleteExpired(Instant.now());
+        revoked.cleanUp();
+        synchronized (bloomLock) {
+            BloomFilter rebuilt = new BloomFilter(bloomBits, bloomHashes);
+            revoked.asMap().keySet().forEach(rebuilt::add);
+            bloom = rebuilt;
+        }
+        log.debug("Purged {} expired token revocations, {} still live", deleted, revoked.estimatedSize());
+    }
+
+    private void apply(RevokedToken row) {
+        if (row.getExpiresAt().isAfter(Instant.now())) {
+            add(row.getRevokedId(), row.getExpiresAt());
+        }
+        if (row.getRevokedAt().isAfter(lastSeen)) {
+            lastSeen = row.getRevokedAt();
+        }
+    }
+
+    private void add(String revokedId, Instant expiresAt) {
+        synchronized (bloomLock) {
+            revoked.put(revokedId, expiresAt);
+            bloom.add(revokedId);
+        }
+    }
+
+    /**
+     * Evicts an entry once the tokens it covers have expired.
+     */
+    private static final class UntilExpiry implements Expiry<String, Instant> {
+
+        @Override
+        public long expireAfterCreate(String revokedId, Instant expiresAt, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String revokedId, Instant expiresAt, long currentTime, long currentDuration) {
+            return Math.max(currentDuration, expireAfterCreate(revokedId, expiresAt, currentTime));
+        }
+
+        @Override
+        public long expireAfterRead(String revokedId, Instant expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.striker.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.striker.auth.repos.IUserProfileRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the next free name in the sequence {@code base, base_1, base_2, ...}.
+ *
+ * One query returns the highest numeric suffix taken for a base, and the name
+ * after it is handed out; gaps left by deleted profiles are not reused. The next
+ * suffix is kept per base as a short-lived counter, so repeated signups with the
+ * same base do not go back to the database. Names handed out are reserved in
+ * memory until {@link #release(String)} so concurrent signups on this node never
+ * get the same candidate; the unique constraint on {@code username} covers other
+ * nodes, and callers {@link #evict(String) evict} the counter and retry on conflict.
+ */
+@Service
+public class UsernameAllocator {
+
+    private final IUserProfileRepo userProfileRepo;
+    private final Cache<String, AtomicInteger> nextSuffixByBase;
+    private final Set<String> reserved = ConcurrentHashMap.newKeySet();
+
+    public UsernameAllocator(IUserProfileRepo userProfileRepo,
+                             @Value("${striker.username.taken-cache.max-size:10000}") long maxSize,
+                             @Value("${striker.username.taken-cache.ttl:PT30S}") Duration ttl) {
+        this.userProfileRepo = userProfileRepo;
+        this.nextSuffixByBase = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns a username derived from {@code base} that is neither stored nor
+     * reserved by another in-flight signup on this node.
+     */
+    public String allocate(String base) {
+        AtomicInteger nextSuffix = nextSuffixByBase.getIfPresent(base);
+        if (nextSuffix == null) {
+            // Query outside the cache's compute lock, which would pin a virtual thread's carrier
+            nextSuffix = cacheNextSuffix(base, userProfileRepo.findMaxUsernameSuffix(base, suffixPattern(base)));
+        }
+        return pick(base, nextSuffix);
+    }
+
+    /**
+     * Like {@link #allocate(String)}, but only from the cached counter.
+     *
+     * @return null if no counter is cached for {@code base}
+     */
+    public String allocateCached(String base) {
+        AtomicInteger nextSuffix = nextSuffixByBase.getIfPresent(base);
+        return nextSuffix != null ? pick(base, nextSuffix) : null;
+    }
+
+    /**
+     * Like {@link #allocate(String)}, for callers that ran
+     * {@link IUserProfileRepo#MAX_USERNAME_SUFFIX_SQL} themselves.
+     */
+    public String allocate(String base, Integer maxTakenSuffix) {
+        return pick(base, cacheNextSuffix(base, maxTakenSuffix));
+    }
+
+    /**
+     * {@code LIKE} pattern, escaped with {@code !}, matching {@code base_<anything>}.
+     */
+    public static String suffixPattern(String base) {
+        return base.replace("!", "!!").replace("_", "!_").replace("%", "!%") + "!_%";
+    }
+
+    /**
+     * Drops the in-memory reservation once the profile has been saved (or failed).
+     */
+    public void release(String username) {
+        if (username != null) {
+            reserved.remove(username);
+        }
+    }
+
+    /**
+     * Forgets the cached counter for {@code base}, e.g. after another node won a race.
+     */
+    public void evict(String base) {
+        nextSuffixByBase.invalidate(base);
+    }
+
+    private AtomicInteger cacheNextSuffix(String base, Integer maxTakenSuffix) {
+        AtomicInteger loaded = new AtomicInteger(maxTakenSuffix == null ? 0 : maxTakenSuffix + 1);
+        AtomicInteger nextSuffix = nextSuffixByBase.asMap().putIfAbsent(base, loaded);
+        return nextSuffix != null ? nextSuffix : loaded;
+    }
+
+    private String pick(String base, AtomicInteger nextSuffix) {
+        while (true) {
+            int suffix = nextSuffix.getAndIncrement();
+            String candidate = suffix == 0 ? base : base + "_" + suffix;
+            if (reserved.add(candidate)) {
+                return candidate;
+            }
+        }
+    }
+}
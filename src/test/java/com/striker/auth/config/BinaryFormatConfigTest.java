@@ -0,0 +1,40 @@
+package com.striker.auth.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.striker.auth.dto.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryFormatConfigTest {
+
+    private final BinaryFormatConfig config = new BinaryFormatConfig();
+    private final ApiResponse notFound = ApiResponse.error(HttpStatus.NOT_FOUND, "No such user");
+
+    @Test
+    void binaryFormatsSendTheNumericStatusCode() throws Exception {
+        ObjectMapper cbor = config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+        ObjectMapper smile = config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()).getObjectMapper();
+
+        JsonNode fromCbor = new CBORMapper().readTree(cbor.writeValueAsBytes(notFound));
+        JsonNode fromSmile = new SmileMapper().readTree(smile.writeValueAsBytes(notFound));
+
+        assertThat(fromCbor.path("httpStatus").isInt()).isTrue();
+        assertThat(fromCbor.path("httpStatus").asInt()).isEqualTo(404);
+        assertThat(fromSmile.path("httpStatus").asInt()).isEqualTo(404);
+        assertThat(fromCbor.has("data")).isFalse();
+    }
+
+    @Test
+    void jsonKeepsTheStatusName() throws Exception {
+        ObjectMapper json = new Jackson2ObjectMapperBuilder().build();
+
+        assertThat(json.readTree(json.writeValueAsString(notFound)).path("httpStatus").asText())
+                .isEqualTo("NOT_FOUND");
+    }
+}
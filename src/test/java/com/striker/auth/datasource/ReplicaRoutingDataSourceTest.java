@@ -0,0 +1,144 @@
+package com.striker.auth.datasource;
+
+import com.striker.auth.dto.ApiResponse;
+import com.striker.auth.dto.UserProfileViewDto;
+import com.striker.auth.repos.IUserProfileRepo;
+import com.striker.auth.service.IUserProfileService;
+import com.striker.auth.service.ProfileETagCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing between two independent PostgreSQL servers standing in for a primary
+ * and its replica. Nothing replicates between them, so a row inserted on one side
+ * shows which server served a read. Skipped when Docker is unavailable.
+ */
+@SpringBootTest(properties = {
+        // Schema on the primary, plus a script of it for the replica, applied in setUp
+        "spring.jpa.properties.jakarta.persistence.schema-generation.database.action=drop-and-create",
+        "spring.jpa.properties.jakarta.persistence.schema-generation.scripts.action=create",
+        "spring.jpa.properties.jakarta.persistence.schema-generation.scripts.create-target=target/replica-schema.sql",
+        "spring.jpa.properties.hibernate.hbm2ddl.schema-generation.script.append=false",
+        "spring.jpa.properties.hibernate.hbm2ddl.delimiter=;",
+        "spring.cloud.aws.secretsmanager.enabled=false",
+        "spring.cloud.aws.region.static=us-east-1"})
+@Testcontainers(disabledWithoutDocker = true)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static boolean replicaSchemaCreated;
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("striker.datasource.replica.urls", replica::getJdbcUrl);
+        registry.add("striker.datasource.replica.username", replica::getUsername);
+        registry.add("striker.datasource.replica.password", replica::getPassword);
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private IUserProfileService userProfileService;
+
+    @Autowired
+    private IUserProfileRepo userProfileRepo;
+
+    @Autowired
+    private ProfileETagCache profileETagCache;
+
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        primaryJdbc = new JdbcTemplate(dataSource);
+        replicaJdbc = new JdbcTemplate(routing.getReplicas().get(0).getDataSource());
+        if (!replicaSchemaCreated) {
+            new ResourceDatabasePopulator(new FileSystemResource("target/replica-schema.sql"))
+                    .execute(routing.getReplicas().get(0).getDataSource());
+            replicaSchemaCreated = true;
+        }
+        routing.checkReplicas();
+    }
+
+    @Test
+    @Order(1)
+    void annotatedReadsGoToTheReplica() {
+        UUID onReplica = insertProfile(replicaJdbc, "replica-only");
+        UUID onPrimary = insertProfile(primaryJdbc, "primary-only");
+
+        assertThat(routing.getReplicas().get(0).isUsable()).isTrue();
+        assertThat(username(userProfileService.getUserProfile(onReplica))).isEqualTo("replica-only");
+        assertThat(userProfileService.getUserProfile(onPrimary).getHttpStatus().value()).isEqualTo(404);
+        // The replica may lag, so its reads are not remembered as the current ETag
+        assertThat(profileETagCache.get(onReplica)).isNull();
+    }
+
+    @Test
+    @Order(2)
+    void otherReadsAndWritesStayOnThePrimary() {
+        UUID onReplica = insertProfile(replicaJdbc, "replica-only-2");
+        UUID onPrimary = insertProfile(primaryJdbc, "primary-only-2");
+
+        // Repository finders run in read-only transactions too, but are not annotated
+        assertThat(userProfileRepo.findById(onReplica)).isEmpty();
+        assertThat(userProfileRepo.findById(onPrimary)).isPresent();
+        assertThat(userProfileService.deleteUserProfile(onPrimary).isSuccess()).isTrue();
+        assertThat(replicaJdbc.queryForObject("SELECT count(*) FROM user_profiles WHERE user_id = ?",
+                Long.class, onReplica)).isEqualTo(1);
+    }
+
+    @Test
+    @Order(3)
+    void fallsBackToThePrimaryWhenTheReplicaIsDown() {
+        UUID onPrimary = insertProfile(primaryJdbc, "primary-fallback");
+        replica.stop();
+
+        routing.checkReplicas();
+        assertThat(routing.getReplicas().get(0).isUsable()).isFalse();
+        assertThat(routing.getReplicas().get(0).getLagSeconds()).isNaN();
+        assertThat(username(userProfileService.getUserProfile(onPrimary))).isEqualTo("primary-fallback");
+        assertThat(profileETagCache.get(onPrimary)).isNotNull();
+    }
+
+    private static UUID insertProfile(JdbcTemplate jdbc, String username) {
+        UUID userId = UUID.randomUUID();
+        jdbc.update("INSERT INTO user_profiles (user_id, username, email, role, status, version) VALUES (?, ?, ?, 'USER', true, 0)",
+                userId, username, username + "@example.com");
+        return userId;
+    }
+
+    private static String username(ApiResponse response) {
+        assertThat(response.getData()).as(response.getMessage()).isInstanceOf(UserProfileViewDto.class);
+        return ((UserProfileViewDto) response.getData()).username();
+    }
+}
@@ -0,0 +1,63 @@
+package com.striker.auth.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    private final UuidV7Generator generator = new UuidV7Generator();
+
+    @Test
+    void setsVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = generator.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        // May run ahead of the clock by the milliseconds borrowed from a full counter
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 1);
+    }
+
+    @Test
+    void isMonotonicWithinAMillisecondOnPlatformThreads() {
+        assertMonotonic(ids(50_000));
+    }
+
+    @Test
+    void isMonotonicWithinAMillisecondOnVirtualThreads() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        Thread thread = Thread.ofVirtual().start(() -> ids.addAll(ids(50_000)));
+        thread.join();
+        assertMonotonic(ids);
+    }
+
+    private List<UUID> ids(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(generator.next());
+        }
+        return ids;
+    }
+
+    private static void assertMonotonic(List<UUID> ids) {
+        int sameMillisecond = 0;
+        for (int i = 1; i < ids.size(); i++) {
+            UUID previous = ids.get(i - 1);
+            UUID current = ids.get(i);
+            assertThat(current).isGreaterThan(previous);
+            assertThat(current.version()).isEqualTo(7);
+            assertThat(current.variant()).isEqualTo(2);
+            if (current.getMostSignificantBits() >>> 16 == previous.getMostSignificantBits() >>> 16) {
+                sameMillisecond++;
+            }
+        }
+        // The counter, not just the clock, did the ordering
+        assertThat(sameMillisecond).isGreaterThan(ids.size() / 2);
+    }
+}
@@ -0,0 +1,61 @@
+package com.striker.auth.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With a zero sample window every ten completed requests form one window.
+ */
+class AdaptiveConcurrencyLimitTest {
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, Duration.ZERO, 100);
+
+    @Test
+    void rejectsRequestsBeyondTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(Duration.ofMillis(10).toNanos());
+        assertThat(limit.getInFlight()).isEqualTo(9);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsWhileLatencyHoldsAndShrinksWhenItClimbs() {
+        saturate(20, Duration.ofMillis(10));
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThan(10);
+
+        saturate(5, Duration.ofMillis(100));
+        assertThat(limit.getLimit()).isLessThan(grown / 2);
+    }
+
+    @Test
+    void holdsTheLimitWhenItIsNotUsed() {
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(Duration.ofMillis(i % 2 == 0 ? 10 : 100).toNanos());
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    /**
+     * Rounds of filling the limit and completing every request with {@code latency}.
+     */
+    private void saturate(int rounds, Duration latency) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limit.release(latency.toNanos());
+            }
+        }
+    }
+}
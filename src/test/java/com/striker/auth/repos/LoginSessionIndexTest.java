@@ -0,0 +1,140 @@
+package com.striker.auth.repos;
+
+import com.striker.auth.config.DatabaseIndexInitializer;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks on a real PostgreSQL that the session lookups are planned on their
+ * indexes rather than a sequential scan. The SQL explained is the SQL Hibernate
+ * generates for the repository methods, captured by a statement inspector, with
+ * the same parameter values bound. Skipped when Docker is unavailable.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.striker.auth.repos.LoginSessionIndexTest$CapturedSql"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DatabaseIndexInitializer.class)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoginSessionIndexTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000028");
+
+    private static boolean seeded;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DatabaseIndexInitializer databaseIndexInitializer;
+
+    @Autowired
+    private ILoginSessionRepo loginSessionRepo;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        if (seeded) {
+            return;
+        }
+        databaseIndexInitializer.run(null);
+        // 5000 users with 20 sessions each; one in twenty is still active, including USER_ID's
+        jdbcTemplate.execute("""
+                INSERT INTO login_session (session_id, user_id, login_time, is_active, is_playing)
+                SELECT gen_random_uuid(),
+                       ('00000000-0000-0000-0000-' || lpad(to_hex(g % 5000), 12, '0'))::uuid,
+                       now() - make_interval(secs => g),
+                       g % 20 = 0,
+                       false
+                FROM generate_series(1, 100000) g
+                """);
+        jdbcTemplate.execute("ANALYZE login_session");
+        seeded = true;
+    }
+
+    @Test
+    void sessionsOfUserUseCompositeIndex() {
+        String sql = CapturedSql.of(() -> loginSessionRepo.findByUserIdOrderByLoginTimeDesc(USER_ID, Limit.of(50)));
+
+        assertThat(explain(sql, USER_ID, 50)).contains("idx_login_session_user_active").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void latestActiveSessionUsesAnIndexOnActiveRows() {
+        String sql = CapturedSql.of(() -> loginSessionRepo.findFirstByUserIdAndIsActiveTrueOrderByLoginTimeDesc(USER_ID));
+
+        assertThat(explain(sql, USER_ID, 1))
+                .containsAnyOf("idx_login_session_active_user", "idx_login_session_user_active")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void activeKeysetPageUsesPartialIndex() {
+        LocalDateTime after = LocalDateTime.now().minusHours(1);
+        String sql = CapturedSql.of(() -> loginSessionRepo.findActivePageAfter(after, USER_ID, Limit.of(200)));
+
+        assertThat(explain(sql, after, USER_ID, 200))
+                .contains("idx_login_session_active_keyset").doesNotContain("Seq Scan");
+    }
+
+    /**
+     * Plan of {@code sql} with {@code args} bound to its placeholders in order.
+     */
+    private String explain(String sql, Object... args) {
+        assertThat(sql.chars().filter(c -> c == '?').count()).as(sql).isEqualTo(args.length);
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    /**
+     * Records the SQL Hibernate prepares, unchanged.
+     */
+    public static class CapturedSql implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        /**
+         * The one statement {@code query} made Hibernate prepare.
+         */
+        static String of(Runnable query) {
+            STATEMENTS.clear();
+            query.run();
+            assertThat(STATEMENTS).hasSize(1);
+            return STATEMENTS.get(0);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.striker.auth.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.striker.auth.dto.SocialLoginRequestDto;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifies ID tokens against a local stand-in for Google's JWKS endpoint.
+ */
+class GoogleIdTokenVerifierTest {
+
+    private static final String CLIENT_ID = "striker-test.apps.googleusercontent.com";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+
+    private HttpServer server;
+    private ThreadPoolTaskScheduler scheduler;
+    private volatile String jwks;
+    private volatile int maxAgeSeconds = 3600;
+
+    private KeyPair key1;
+    private GooglePublicKeyCache keyCache;
+    private GoogleIdTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        key1 = Keys.keyPairFor(SignatureAlgorithm.RS256);
+        jwks = jwks(Map.of("k1", key1));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/certs", exchange -> {
+            jwksRequests.incrementAndGet();
+            byte[] body = jwks.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=" + maxAgeSeconds + ", must-revalidate");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+        keyCache = new GooglePublicKeyCache(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/certs"),
+                Duration.ofSeconds(1), Duration.ofHours(1), scheduler, objectMapper);
+        // Warms the cache in the background
+        verifier = new GoogleIdTokenVerifier(keyCache, List.of(CLIENT_ID), Duration.ofSeconds(30), true);
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (keyCache.getExpiresAt().equals(Instant.MIN) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void verifiesLocallyWithCachedKeys() {
+        int requestsAfterLoad = jwksRequests.get();
+        for (int i = 0; i < 100; i++) {
+            GoogleIdentity identity = verifier.verify(token(key1, "k1", CLIENT_ID, Instant.now().plusSeconds(600)));
+            assertThat(identity.subject()).isEqualTo("1234567890");
+            assertThat(identity.email()).isEqualTo("player@example.com");
+            assertThat(identity.emailVerified()).isTrue();
+        }
+
+        assertThat(jwksRequests.get()).isEqualTo(requestsAfterLoad);
+        assertThat(keyCache.getExpiresAt()).isAfter(Instant.now().plus(Duration.ofMinutes(59)));
+    }
+
+    @Test
+    void rejectsTokensThatDoNotVerify() {
+        KeyPair stranger = Keys.keyPairFor(SignatureAlgorithm.RS256);
+        Instant expiry = Instant.now().plusSeconds(600);
+
+        assertThatThrownBy(() -> verifier.verify(token(stranger, "k1", CLIENT_ID, expiry)))
+                .isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> verifier.verify(token(key1, "k1", "someone-else", expiry)))
+                .isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> verifier.verify(token(key1, "k1", CLIENT_ID, Instant.now().minusSeconds(600))))
+                .isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> verifier.verify(token(key1, "unknown", CLIENT_ID, expiry)))
+                .isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> verifier.verify(null))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void picksUpRotatedKeysWhenMaxAgeRunsOut() throws Exception {
+        KeyPair key2 = Keys.keyPairFor(SignatureAlgorithm.RS256);
+        maxAgeSeconds = 1;
+        keyCache.refresh();
+        jwks = jwks(Map.of("k2", key2));
+
+        String rotated = token(key2, "k2", CLIENT_ID, Instant.now().plusSeconds(600));
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (keyCache.key("k2") == null && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(verifier.verify(rotated).subject()).isEqualTo("1234567890");
+        assertThat(keyCache.key("k1")).isNull();
+    }
+
+    @Test
+    void googleRequestTakesIdentityFromToken() {
+        SocialLoginRequestDto request = new SocialLoginRequestDto("GOOGLE", "forged-sub", "victim@example.com",
+                null, "player", null, token(key1, "k1", CLIENT_ID, Instant.now().plusSeconds(600)));
+
+        SocialLoginRequestDto verified = verifier.verifiedRequest(request);
+
+        assertThat(verified.providerUserId()).isEqualTo("1234567890");
+        assertThat(verified.email()).isEqualTo("player@example.com");
+        assertThat(verified.fullName()).isEqualTo("Player One");
+        assertThat(verified.username()).isEqualTo("player");
+        assertThatThrownBy(() -> verifier.verifiedRequest(new SocialLoginRequestDto("GOOGLE", "sub",
+                "player@example.com", null, null, null, null)))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void googleLoginsFailClosedWithoutClientIds() {
+        SocialLoginRequestDto request = new SocialLoginRequestDto("GOOGLE", "forged-sub", "victim@example.com",
+                null, "player", null, token(key1, "k1", CLIENT_ID, Instant.now().plusSeconds(600)));
+
+        GoogleIdTokenVerifier unconfigured = new GoogleIdTokenVerifier(keyCache, List.of(), Duration.ofSeconds(30), true);
+        assertThatThrownBy(() -> unconfigured.verifiedRequest(request)).isInstanceOf(JwtException.class);
+
+        GoogleIdTokenVerifier disabled = new GoogleIdTokenVerifier(keyCache, List.of(), Duration.ofSeconds(30), false);
+        assertThat(disabled.verifiedRequest(request)).isSameAs(request);
+    }
+
+    private static String token(KeyPair key, String kid, String audience, Instant expiry) {
+        return Jwts.builder()
+                .setHeaderParam("kid", kid)
+                .setIssuer("https://accounts.google.com")
+                .setAudience(audience)
+                .setSubject("1234567890")
+                .claim("email", "player@example.com")
+                .claim("email_verified", true)
+                .claim("name", "Player One")
+                .setIssuedAt(new Date())
+                .setExpiration(Date.from(expiry))
+                .signWith(key.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    private String jwks(Map<String, KeyPair> keys) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        List<Map<String, String>> jwkList = keys.entrySet().stream().map(entry -> {
+            RSAPublicKey publicKey = (RSAPublicKey) entry.getValue().getPublic();
+            return Map.of(
+                    "kty", "RSA",
+                    "alg", "RS256",
+                    "use", "sig",
+                    "kid", entry.getKey(),
+                    "n", encoder.encodeToString(unsigned(publicKey.getModulus().toByteArray())),
+                    "e", encoder.encodeToString(unsigned(publicKey.getPublicExponent().toByteArray())));
+        }).toList();
+        return objectMapper.writeValueAsString(Map.of("keys", jwkList));
+    }
+
+    private static byte[] unsigned(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+}
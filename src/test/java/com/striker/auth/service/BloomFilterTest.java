@@ -0,0 +1,75 @@
+package com.striker.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverForgetsAKey() {
+        BloomFilter filter = new BloomFilter(1 << 16, 4);
+        List<String> keys = keys(10_000);
+        keys.forEach(filter::add);
+
+        assertThat(keys).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void falsePositivesStayNearTheExpectedRate() {
+        // 10k keys in 128k bits with 4 probes: about 0.5% expected
+        BloomFilter filter = new BloomFilter(1 << 17, 4);
+        keys(10_000).forEach(filter::add);
+
+        long falsePositives = keys(100_000).stream().filter(filter::mightContain).count();
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void concurrentAddsToSharedWordsAreAllKept() throws Exception {
+        // Small filter, so threads keep setting bits in the same words
+        BloomFilter filter = new BloomFilter(1 << 12, 4);
+        int threads = 8;
+        List<List<String>> perThread = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            perThread.add(keys(500));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> adds = new ArrayList<>();
+            for (List<String> keys : perThread) {
+                adds.add(executor.submit(() -> {
+                    start.await();
+                    keys.forEach(filter::add);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> add : adds) {
+                add.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(perThread).allSatisfy(keys -> assertThat(keys).allMatch(filter::mightContain));
+    }
+
+    private static List<String> keys(int count) {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(UUID.randomUUID().toString());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,301 @@
+package com.striker.auth.service.Impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.striker.auth.service.ProfileWriteBehindUpdater;
+import com.striker.auth.service.ProviderMappingCache;
+import com.striker.auth.service.UsernameAllocator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets for the login and profile paths, counted by the per-request
+ * {@code striker.http.sql.statements} metric on a real PostgreSQL. A change that
+ * adds a select or lets an association load eagerly again fails here. Skipped
+ * when Docker is unavailable.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.cloud.aws.secretsmanager.enabled=false",
+        "spring.cloud.aws.region.static=us-east-1",
+        // Logins below send no ID token
+        "striker.google.verification.enabled=false"})
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class QueryBudgetTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String SOCIAL_LOGIN = "/api/v1/userprofiles/social-login";
+    private static final String GUEST_LOGIN = "/api/v1/guest-login";
+    private static final String UPDATE_PROFILE = "/api/v1/updateuserprofiles";
+    private static final String GET_PROFILE = "/api/v1/getuserprofiles/{userId}";
+
+    // provider lookup, email check, username scan, profile + provider insert, session + refresh token insert
+    private static final int NEW_SOCIAL_USER_BUDGET = 7;
+    // provider joined with profile, session + refresh token insert
+    private static final int RETURNING_SOCIAL_USER_BUDGET = 3;
+    // profile + provider insert, session + refresh token insert
+    private static final int GUEST_BUDGET = 4;
+    // one UPDATE ... RETURNING
+    private static final int PROFILE_UPDATE_BUDGET = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProviderMappingCache providerMappingCache;
+
+    @Autowired
+    private UsernameAllocator usernameAllocator;
+
+    @Autowired
+    private ProfileWriteBehindUpdater profileWriteBehindUpdater;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void newSocialUserStaysWithinBudget() throws Exception {
+        assertThat(statements(SOCIAL_LOGIN, () -> socialLogin("budget-new")))
+                .isLessThanOrEqualTo(NEW_SOCIAL_USER_BUDGET);
+    }
+
+    @Test
+    void returningSocialUserLoadsProviderAndProfileTogether() throws Exception {
+        socialLogin("budget-returning");
+        // Force the provider-table path rather than the cached primary-key lookup
+        providerMappingCache.evict("GOOGLE", "budget-returning");
+
+        assertThat(statements(SOCIAL_LOGIN, () -> socialLogin("budget-returning")))
+                .isLessThanOrEqualTo(RETURNING_SOCIAL_USER_BUDGET);
+        assertThat(statements(SOCIAL_LOGIN, () -> socialLogin("budget-returning")))
+                .isLessThanOrEqualTo(RETURNING_SOCIAL_USER_BUDGET);
+    }
+
+    @Test
+    void guestStaysWithinBudget() throws Exception {
+        assertThat(statements(GUEST_LOGIN, this::guestLogin)).isLessThanOrEqualTo(GUEST_BUDGET);
+    }
+
+    @Test
+    void profileUpdateIsOneStatement() throws Exception {
+        UUID userId = socialLogin("budget-update");
+
+        assertThat(statements(UPDATE_PROFILE, () -> {
+            JsonNode data = updateProfile(Map.of("userId", userId, "fullName", "Renamed Player", "mobile", "12345"));
+            assertThat(data.path("data").path("fullName").asText()).isEqualTo("Renamed Player");
+            assertThat(data.path("data").path("version").asLong()).isEqualTo(1);
+            return userId;
+        })).isLessThanOrEqualTo(PROFILE_UPDATE_BUDGET);
+    }
+
+    @Test
+    void profileUpdateMapsConflicts() throws Exception {
+        UUID first = socialLogin("budget-conflict-1");
+        UUID second = socialLogin("budget-conflict-2");
+
+        assertThat(updateProfile(Map.of("userId", second, "email", "BUDGET-CONFLICT-1@example.com"))
+                .path("errorMessage").asText()).isEqualTo("Email already in use");
+        String firstUsername = updateProfile(Map.of("userId", first, "fullName", "First"))
+                .path("data").path("username").asText();
+        assertThat(updateProfile(Map.of("userId", second, "username", firstUsername))
+                .path("errorMessage").asText()).isEqualTo("Username already in use");
+
+        updateProfile(Map.of("userId", first, "fullName", "First again", "version", 1));
+        assertThat(updateProfile(Map.of("userId", first, "fullName", "Stale", "version", 1))
+                .path("httpStatus").asText()).isEqualTo("CONFLICT");
+        assertThat(updateProfile(Map.of("userId", UUID.randomUUID(), "fullName", "Nobody", "version", 0))
+                .path("httpStatus").asText()).isEqualTo("NOT_FOUND");
+    }
+
+    @Test
+    void unchangedProfileIsAnsweredFromTheETagCache() throws Exception {
+        UUID userId = socialLogin("budget-etag");
+        String etag = mockMvc.perform(get(GET_PROFILE, userId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        assertThat(statements(GET_PROFILE, () -> {
+            mockMvc.perform(get(GET_PROFILE, userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+            return userId;
+        })).isZero();
+
+        updateProfile(Map.of("userId", userId, "fullName", "Renamed Player"));
+        String renamed = mockMvc.perform(get(GET_PROFILE, userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(renamed).isNotEqualTo(etag);
+
+        mockMvc.perform(patch("/api/v1/profile-pic").param("userId", userId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"profilePic\":\"https://example.com/new.png\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(GET_PROFILE, userId).header(HttpHeaders.IF_NONE_MATCH, renamed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.profilePic").value("https://example.com/new.png"));
+    }
+
+    @Test
+    void newUsernamesContinueAfterTheHighestNumericSuffix() throws Exception {
+        assertThat(username(socialLogin("suffix-a", Map.of("username", "suffixer")))).isEqualTo("suffixer");
+        updateProfile(Map.of("userId", socialLogin("suffix-b"), "username", "suffixer_7"));
+        updateProfile(Map.of("userId", socialLogin("suffix-c"), "username", "suffixer_doe"));
+        usernameAllocator.evict("suffixer");
+
+        assertThat(username(socialLogin("suffix-d", Map.of("username", "suffixer")))).isEqualTo("suffixer_8");
+        assertThat(username(socialLogin("suffix-e", Map.of("username", "suffixer")))).isEqualTo("suffixer_9");
+    }
+
+    @Test
+    void directPictureEditIsNotUndoneByABufferedOne() throws Exception {
+        UUID userId = socialLogin("pic-order", Map.of("pictureUrl", "https://example.com/first.png"));
+        // Returning login: the picture is buffered, not written
+        socialLogin("pic-order", Map.of("pictureUrl", "https://example.com/buffered.png"));
+
+        updateProfile(Map.of("userId", userId, "profilePic", "https://example.com/edited.png"));
+        mockMvc.perform(get(GET_PROFILE, userId))
+                .andExpect(jsonPath("$.data.profilePic").value("https://example.com/edited.png"));
+
+        profileWriteBehindUpdater.flush();
+        mockMvc.perform(get(GET_PROFILE, userId))
+                .andExpect(jsonPath("$.data.profilePic").value("https://example.com/edited.png"));
+    }
+
+    @Test
+    void logoutOfAnExpiredSessionStillRevokesItsRefreshTokens() throws Exception {
+        JsonNode login = objectMapper.readTree(mockMvc.perform(post(GUEST_LOGIN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).path("data");
+        String sessionId = login.path("sessionId").asText();
+        // As if another node had expired it for idleness
+        jdbcTemplate.update("UPDATE login_session SET is_active = false WHERE session_id = ?::uuid", sessionId);
+
+        mockMvc.perform(put("/api/v1/loginsessions/{sessionId}/invalidate", sessionId))
+                .andExpect(jsonPath("$.success").value(true));
+        mockMvc.perform(post("/api/v1/tokens/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", login.path("refreshToken").asText()))))
+                .andExpect(jsonPath("$.errorMessage").value("Invalid refresh token"));
+    }
+
+    @Test
+    void deletingAProfileEndsItsSessions() throws Exception {
+        JsonNode login = objectMapper.readTree(mockMvc.perform(post(GUEST_LOGIN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).path("data");
+
+        mockMvc.perform(delete("/api/v1/deleteuserprofiles/{userId}", login.path("userId").asText()))
+                .andExpect(jsonPath("$.success").value(true));
+
+        mockMvc.perform(post("/api/v1/tokens/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", login.path("refreshToken").asText()))))
+                .andExpect(jsonPath("$.errorMessage").value("Invalid refresh token"));
+        mockMvc.perform(post("/api/v1/tokens/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("token", login.path("jwt").asText()))))
+                .andExpect(jsonPath("$.errorMessage").value("Token revoked"));
+        assertThat(jdbcTemplate.queryForObject("SELECT is_active FROM login_session WHERE session_id = ?::uuid",
+                Boolean.class, login.path("sessionId").asText())).isFalse();
+    }
+
+    private JsonNode updateProfile(Map<String, Object> body) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(patch(UPDATE_PROFILE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private UUID socialLogin(String providerUserId) throws Exception {
+        return socialLogin(providerUserId, Map.of());
+    }
+
+    private UUID socialLogin(String providerUserId, Map<String, Object> extra) throws Exception {
+        Map<String, Object> request = new HashMap<>(Map.of(
+                "provider", "GOOGLE",
+                "providerUserId", providerUserId,
+                "email", providerUserId + "@example.com",
+                "fullName", "Budget Player"));
+        request.putAll(extra);
+        String body = objectMapper.writeValueAsString(request);
+        return userId(mockMvc.perform(post(SOCIAL_LOGIN).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private String username(UUID userId) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(GET_PROFILE, userId))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString())
+                .path("data").path("username").asText();
+    }
+
+    private UUID guestLogin() throws Exception {
+        return userId(mockMvc.perform(post(GUEST_LOGIN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private UUID userId(String response) throws Exception {
+        JsonNode data = objectMapper.readTree(response).path("data");
+        assertThat(data.hasNonNull("userId")).as(response).isTrue();
+        return UUID.fromString(data.get("userId").asText());
+    }
+
+    /**
+     * Statements prepared by one request to {@code uri}.
+     */
+    private long statements(String uri, Login login) throws Exception {
+        double before = totalStatements(uri);
+        login.run();
+        return Math.round(totalStatements(uri) - before);
+    }
+
+    private double totalStatements(String uri) {
+        DistributionSummary summary = meterRegistry.find("striker.http.sql.statements").tag("uri", uri).summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+
+    @FunctionalInterface
+    private interface Login {
+        UUID run() throws Exception;
+    }
+}
@@ -0,0 +1,133 @@
+package com.striker.auth.service.Impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.striker.auth.service.ProfileWriteBehindUpdater;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The login endpoints of the {@code reactive} profile on a real PostgreSQL, over
+ * R2DBC. The write-behind buffer holds a single user, so the second returning
+ * user finds it full. Skipped when Docker is unavailable.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.cloud.aws.secretsmanager.enabled=false",
+        "spring.cloud.aws.region.static=us-east-1",
+        // Logins below send no ID token
+        "striker.google.verification.enabled=false",
+        "striker.write-behind.max-pending=1",
+        "striker.write-behind.flush-interval=PT1H"})
+@AutoConfigureMockMvc
+@ActiveProfiles("reactive")
+@Testcontainers(disabledWithoutDocker = true)
+class ReactiveLoginTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    // ReactiveDataConfig reuses the JDBC credentials for R2DBC
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("striker.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + postgres.getDatabaseName());
+    }
+
+    private static final String SOCIAL_LOGIN = "/api/v1/userprofiles/social-login";
+    private static final String GUEST_LOGIN = "/api/v1/guest-login";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProfileWriteBehindUpdater profileWriteBehindUpdater;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void socialAndGuestLoginsIssueTokens() throws Exception {
+        JsonNode created = socialLogin("reactive-new");
+        JsonNode returning = socialLogin("reactive-new");
+        JsonNode guest = login(post(GUEST_LOGIN));
+
+        assertThat(returning.path("userId").asText()).isEqualTo(created.path("userId").asText());
+        assertThat(returning.path("sessionId").asText()).isNotEqualTo(created.path("sessionId").asText());
+        for (JsonNode data : new JsonNode[]{created, returning, guest}) {
+            assertThat(data.hasNonNull("jwt")).as(data.toString()).isTrue();
+            assertThat(data.hasNonNull("refreshToken")).as(data.toString()).isTrue();
+        }
+    }
+
+    @Test
+    void fullWriteBehindBufferDropsTheUpdateRatherThanWritingThrough() throws Exception {
+        UUID first = UUID.fromString(socialLogin("reactive-first").path("userId").asText());
+        UUID second = UUID.fromString(socialLogin("reactive-second").path("userId").asText());
+        profileWriteBehindUpdater.flush();
+        String firstLastLogin = lastLogin(first);
+        String secondLastLogin = lastLogin(second);
+
+        // The first user's update takes the only slot; the second one's is dropped
+        socialLogin("reactive-first");
+        socialLogin("reactive-second");
+        assertThat(lastLogin(second)).isEqualTo(secondLastLogin);
+
+        profileWriteBehindUpdater.flush();
+        assertThat(lastLogin(first)).isNotEqualTo(firstLastLogin);
+        assertThat(lastLogin(second)).isEqualTo(secondLastLogin);
+    }
+
+    private JsonNode socialLogin(String providerUserId) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "provider", "GOOGLE",
+                "providerUserId", providerUserId,
+                "email", providerUserId + "@example.com",
+                "fullName", "Reactive Player"));
+        return login(post(SOCIAL_LOGIN).contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    private JsonNode login(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode data = objectMapper.readTree(response).path("data");
+        assertThat(data.hasNonNull("userId")).as(response).isTrue();
+        return data;
+    }
+
+    private String lastLogin(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT last_login FROM user_profiles WHERE user_id = ?",
+                String.class, userId);
+    }
+}
@@ -0,0 +1,26 @@
+package com.striker.auth.service.Impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserProfileServiceImplTest {
+
+    @Test
+    void socialLoginConflictsNameTheColumnThatCollided() {
+        assertThat(UserProfileServiceImpl.socialLoginConflict(violation(
+                "duplicate key value violates unique constraint \"uk_user_profiles_username\"")).getErrorMessage())
+                .isEqualTo("Username already in use");
+        assertThat(UserProfileServiceImpl.socialLoginConflict(violation(
+                "duplicate key value violates unique constraint \"user_profiles_email_key\"\n"
+                        + "  Detail: Key (email)=(a@example.com) already exists.")).getErrorMessage())
+                .isEqualTo("Email already exists");
+    }
+
+    private static DataIntegrityViolationException violation(String message) {
+        return new DataIntegrityViolationException("could not execute statement", new SQLException(message));
+    }
+}
@@ -0,0 +1,125 @@
+package com.striker.auth.service;
+
+import com.striker.auth.dto.NearbyPlayerDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Grid queries checked against a brute-force haversine scan over the same
+ * players, around origins where longitude cells are narrow or wrap the
+ * antimeridian.
+ */
+class NearbyPlayersIndexTest {
+
+    private static final double[][] ORIGINS = {
+            {0, 10},        // equator, as a control
+            {70, 20},
+            {-78, -60},
+            {85, 0},
+            {89.5, 120},
+            {0, 179.95},
+            {60, -179.9},
+            {-65, 180}
+    };
+
+    private final Random random = new Random(42);
+
+    @Test
+    void nearestMatchesABruteForceScan() {
+        NearbyPlayersIndex index = new NearbyPlayersIndex(0.1, 500);
+        List<Player> players = populate(index, 4);
+
+        for (double[] origin : ORIGINS) {
+            for (int k : new int[]{1, 5, 25}) {
+                assertThat(ids(index.nearest(origin[0], origin[1], k, false, null)))
+                        .as("%d nearest to %s, %s", k, origin[0], origin[1])
+                        .containsExactlyElementsOf(bruteForce(players, origin, 500, false, null, k));
+            }
+        }
+    }
+
+    @Test
+    void radiusQueryMatchesABruteForceScan() {
+        NearbyPlayersIndex index = new NearbyPlayersIndex(0.1, 500);
+        List<Player> players = populate(index, 4);
+
+        for (double[] origin : ORIGINS) {
+            for (double radius : new double[]{5, 50, 300}) {
+                assertThat(ids(index.withinRadius(origin[0], origin[1], radius, false, null, 10_000)))
+                        .as("within %s km of %s, %s", radius, origin[0], origin[1])
+                        .containsExactlyElementsOf(bruteForce(players, origin, radius, false, null, 10_000));
+            }
+        }
+    }
+
+    @Test
+    void filtersApplyAndRadiiSpanningTheGlobeScanEachColumnOnce() {
+        // Coarse cells and a wide radius, so near the poles the span wraps all the way round
+        NearbyPlayersIndex index = new NearbyPlayersIndex(1, 2000);
+        List<Player> players = populate(index, 12);
+
+        for (double[] origin : ORIGINS) {
+            UUID excluded = players.get(random.nextInt(players.size())).userId;
+            assertThat(ids(index.nearest(origin[0], origin[1], 10, true, excluded)))
+                    .as("10 nearest available to %s, %s", origin[0], origin[1])
+                    .containsExactlyElementsOf(bruteForce(players, origin, 2000, true, excluded, 10));
+            assertThat(ids(index.withinRadius(origin[0], origin[1], 1500, true, excluded, 10_000)))
+                    .as("available within 1500 km of %s, %s", origin[0], origin[1])
+                    .containsExactlyElementsOf(bruteForce(players, origin, 1500, true, excluded, 10_000));
+        }
+    }
+
+    /**
+     * Scatters players around every origin, up to {@code spreadDegrees} away in
+     * latitude and further in longitude, wrapped over the poles and the
+     * antimeridian.
+     */
+    private List<Player> populate(NearbyPlayersIndex index, double spreadDegrees) {
+        List<Player> players = new ArrayList<>();
+        for (double[] origin : ORIGINS) {
+            for (int i = 0; i < 300; i++) {
+                double lat = origin[0] + (random.nextDouble() * 2 - 1) * spreadDegrees;
+                double lon = origin[1] + (random.nextDouble() * 2 - 1) * spreadDegrees * 6;
+                // Past a pole is the far side of it, so no two players tie at the pole itself
+                if (Math.abs(lat) > 90) {
+                    lat = Math.signum(lat) * 180 - lat;
+                    lon += 180;
+                }
+                lon = ((lon + 180) % 360 + 360) % 360 - 180;
+                Player player = new Player(UUID.randomUUID(), lat, lon, random.nextBoolean());
+                index.update(player.userId, UUID.randomUUID(), Double.toString(lat), Double.toString(lon), player.playing);
+                players.add(player);
+            }
+        }
+        return players;
+    }
+
+    private static List<UUID> bruteForce(List<Player> players, double[] origin, double radiusKm,
+                                         boolean availableOnly, UUID excludeUserId, int limit) {
+        return players.stream()
+                .filter(player -> !(availableOnly && player.playing) && !player.userId.equals(excludeUserId))
+                .filter(player -> player.distanceFrom(origin) <= radiusKm)
+                .sorted(Comparator.comparingDouble(player -> player.distanceFrom(origin)))
+                .limit(limit)
+                .map(Player::userId)
+                .toList();
+    }
+
+    private static List<UUID> ids(List<NearbyPlayerDto> found) {
+        return found.stream().map(NearbyPlayerDto::userId).toList();
+    }
+
+    private record Player(UUID userId, double latitude, double longitude, boolean playing) {
+
+        double distanceFrom(double[] origin) {
+            return NearbyPlayersIndex.haversineKm(origin[0], origin[1], latitude, longitude);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.striker.auth.service;
+
+import com.striker.auth.config.JwtKeyProperties;
+import com.striker.auth.entity.LoginSession;
+import com.striker.auth.exception.TokenRevokedException;
+import com.striker.auth.id.UuidV7Generator;
+import com.striker.auth.repos.ILoginSessionRepo;
+import com.striker.auth.repos.IRefreshTokenRepo;
+import com.striker.auth.repos.IRevokedTokenRepo;
+import com.striker.auth.security.JwtKeyRing;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two registries over one database, standing in for two nodes: heartbeats sent
+ * to either node keep a session alive on both, only a session idle on all of
+ * them is expired, with its refresh and access tokens revoked, and either node
+ * serves presence for a session created on the other. Skipped when Docker is
+ * unavailable.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PresenceRegistryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final Duration IDLE_TIMEOUT = Duration.ofMillis(1000);
+
+    @Autowired
+    private ILoginSessionRepo loginSessionRepo;
+
+    @Autowired
+    private IRefreshTokenRepo refreshTokenRepo;
+
+    @Autowired
+    private IRevokedTokenRepo revokedTokenRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TokenRevocationList revocationsA;
+    private TokenRevocationList revocationsB;
+    private PresenceRegistry nodeA;
+    private PresenceRegistry nodeB;
+
+    @BeforeEach
+    void nodes() {
+        revocationsA = revocationList();
+        revocationsB = revocationList();
+        nodeA = node(revocationsA);
+        nodeB = node(revocationsB);
+    }
+
+    @Test
+    void heartbeatsOnAnotherNodeKeepTheSessionAlive() throws Exception {
+        LoginSession session = activeSession();
+        nodeA.register(session);
+        new RefreshTokenStore(refreshTokenRepo, Duration.ofDays(1))
+                .issue(session.getUserId(), "GOOGLE", session.getSessionId());
+        JwtKeyRing keyRing = new JwtKeyRing(new JwtKeyProperties());
+        JwtService jwtA = jwtService(keyRing, revocationsA);
+        JwtService jwtB = jwtService(keyRing, revocationsB);
+        String accessToken = jwtA.generateAccessToken(session.getUserId(), "GOOGLE", session.getSessionId());
+
+        // Created on A, so B loads it rather than answering 404
+        assertThat(nodeB.heartbeat(session.getSessionId())).isTrue();
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(250);
+            nodeB.heartbeat(session.getSessionId());
+            nodeB.flush();
+            nodeA.expireIdleSessions();
+        }
+        assertThat(isActive(session)).isTrue();
+        assertThat(nodeA.get(session.getUserId())).isPresent();
+        assertThat(refreshTokensRevoked(session)).isFalse();
+        assertThat(jwtB.verify(accessToken).sessionId()).isEqualTo(session.getSessionId().toString());
+
+        Thread.sleep(IDLE_TIMEOUT.toMillis() + 500);
+        nodeA.expireIdleSessions();
+        assertThat(isActive(session)).isFalse();
+        assertThat(nodeA.get(session.getUserId())).isEmpty();
+        assertThat(refreshTokensRevoked(session)).isTrue();
+        // B learns of the revocation with its next poll
+        assertThatThrownBy(() -> jwtA.verify(accessToken)).isInstanceOf(TokenRevokedException.class);
+        revocationsB.poll();
+        assertThatThrownBy(() -> jwtB.verify(accessToken)).isInstanceOf(TokenRevokedException.class);
+
+        // B drops its copy once its own deadline shows the row is gone
+        nodeB.expireIdleSessions();
+        assertThat(nodeB.heartbeat(session.getSessionId())).isFalse();
+    }
+
+    @Test
+    void presenceOfASessionFromAnotherNodeIsLoadedAndUpdated() {
+        LoginSession session = activeSession();
+        nodeA.register(session);
+
+        assertThat(nodeB.get(session.getUserId()))
+                .hasValueSatisfying(loaded -> assertThat(loaded.getSessionId()).isEqualTo(session.getSessionId()));
+        assertThat(nodeB.update(UUID.randomUUID(), true, null, null)).isEmpty();
+
+        LoginSession other = activeSession();
+        nodeA.register(other);
+        assertThat(nodeB.update(other.getUserId(), true, "77.59", "12.97"))
+                .hasValueSatisfying(updated -> assertThat(updated.isPlaying()).isTrue());
+        nodeB.flush();
+        assertThat(jdbcTemplate.queryForObject("SELECT is_playing FROM login_session WHERE session_id = ?",
+                Boolean.class, other.getSessionId())).isTrue();
+    }
+
+    @Test
+    void heartbeatForAnUnknownSessionIsRejected() {
+        assertThat(nodeA.heartbeat(UUID.randomUUID())).isFalse();
+    }
+
+    private PresenceRegistry node(TokenRevocationList revocations) {
+        return new PresenceRegistry(loginSessionRepo, jdbcTemplate, new NearbyPlayersIndex(0.1, 500), revocations,
+                entityManager, transactionManager, 16, 500, IDLE_TIMEOUT, Duration.ofMillis(100));
+    }
+
+    private TokenRevocationList revocationList() {
+        return new TokenRevocationList(revokedTokenRepo, new UuidV7Generator(),
+                Duration.ofMinutes(15), Duration.ofSeconds(10), 1 << 16, 4);
+    }
+
+    private static JwtService jwtService(JwtKeyRing keyRing, TokenRevocationList revocations) {
+        return new JwtService(keyRing, new UuidV7Generator(), revocations,
+                Duration.ofMinutes(15), 1000, Duration.ofMinutes(5));
+    }
+
+    private LoginSession activeSession() {
+        LoginSession session = new LoginSession();
+        session.setUserId(UUID.randomUUID());
+        session.setLoginTime(LocalDateTime.now());
+        session.setActive(true);
+        return loginSessionRepo.save(session);
+    }
+
+    private boolean isActive(LoginSession session) {
+        return jdbcTemplate.queryForObject("SELECT is_active FROM login_session WHERE session_id = ?",
+                Boolean.class, session.getSessionId());
+    }
+
+    private boolean refreshTokensRevoked(LoginSession session) {
+        return jdbcTemplate.queryForObject("SELECT bool_and(revoked) FROM refresh_tokens WHERE session_id = ?",
+                Boolean.class, session.getSessionId());
+    }
+}
@@ -0,0 +1,105 @@
+package com.striker.auth.service;
+
+import com.striker.auth.dto.UserProfileViewDto;
+import com.striker.auth.entity.UserProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Flushes against a {@link JdbcTemplate} whose batch runs a callback in place of
+ * the database, so tests can look at the buffer while a batch is in flight.
+ */
+class ProfileWriteBehindUpdaterTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final ProfileETagCache etags = new ProfileETagCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    private final List<Integer> batches = new ArrayList<>();
+    private Consumer<Integer> duringWrite = size -> { };
+    private final ProfileWriteBehindUpdater updater = new ProfileWriteBehindUpdater(jdbcTemplate(), etags, 100, 500);
+
+    @Test
+    void updatesStayVisibleUntilTheirBatchCommits() {
+        updater.updateProfilePic(userId, "new.png");
+        List<String> seenDuringWrite = new ArrayList<>();
+        duringWrite = size -> seenDuringWrite.add(updater.applyPending(profile()).getProfilePic());
+
+        updater.flush();
+
+        assertThat(seenDuringWrite).containsExactly("new.png");
+        assertThat(updater.applyPending(profile()).getProfilePic()).isEqualTo("old.png");
+    }
+
+    @Test
+    void anETagStoredDuringTheWriteIsDroppedOnceItCommits() {
+        updater.updateProfilePic(userId, "new.png");
+        // A read that raced the batch and cached the ETag of the row it loaded
+        duringWrite = size -> etags.store(etags.lease(userId), view());
+
+        updater.flush();
+
+        assertThat(etags.get(userId)).isNull();
+    }
+
+    @Test
+    void updatesMergedInDuringTheWriteAreKeptForTheNextFlush() {
+        updater.recordLogin(userId);
+        duringWrite = size -> updater.updateProfilePic(userId, "newer.png");
+
+        updater.flush();
+        assertThat(updater.applyPending(profile()).getProfilePic()).isEqualTo("newer.png");
+
+        duringWrite = size -> { };
+        updater.flush();
+        assertThat(batches).containsExactly(1, 1);
+        assertThat(updater.applyPending(profile()).getProfilePic()).isEqualTo("old.png");
+    }
+
+    @Test
+    void aFailedBatchStaysPending() {
+        updater.updateProfilePic(userId, "new.png");
+        duringWrite = size -> {
+            throw new IllegalStateException("database down");
+        };
+
+        updater.flush();
+        assertThat(updater.applyPending(profile()).getProfilePic()).isEqualTo("new.png");
+
+        duringWrite = size -> { };
+        updater.flush();
+        assertThat(updater.applyPending(profile()).getProfilePic()).isEqualTo("old.png");
+    }
+
+    private UserProfile profile() {
+        UserProfile profile = new UserProfile();
+        profile.setUserId(userId);
+        profile.setProfilePic("old.png");
+        return profile;
+    }
+
+    private UserProfileViewDto view() {
+        return UserProfileViewDto.of(profile());
+    }
+
+    private JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate() {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                duringWrite.accept(batchArgs.size());
+                batches.add(batchArgs.size());
+                return new int[][]{new int[batchArgs.size()]};
+            }
+        };
+    }
+}
@@ -0,0 +1,244 @@
+package com.striker.auth.service;
+
+import com.striker.auth.config.JwtKeyProperties;
+import com.striker.auth.dto.ApiResponse;
+import com.striker.auth.entity.RefreshToken;
+import com.striker.auth.id.UuidV7Generator;
+import com.striker.auth.repos.ILoginSessionRepo;
+import com.striker.auth.repos.IRefreshTokenRepo;
+import com.striker.auth.repos.IRevokedTokenRepo;
+import com.striker.auth.security.JwtKeyRing;
+import com.striker.auth.service.Impl.TokenServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rotation and reuse detection over an in-memory token table whose
+ * {@code markUsed} has the same compare-and-set semantics as the query. Sessions
+ * in {@code liveSessions} are active and belong to an existing user.
+ */
+class RefreshTokenStoreTest {
+
+    private final Map<UUID, RefreshToken> rows = new ConcurrentHashMap<>();
+    private final Set<UUID> liveSessions = ConcurrentHashMap.newKeySet();
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private volatile boolean inTransaction;
+    private final RefreshTokenStore store = new RefreshTokenStore(refreshTokenRepo(), Duration.ofDays(30));
+
+    @Test
+    void storesOnlyTheHashOfTheToken() {
+        String token = store.issue(UUID.randomUUID(), "GOOGLE", UUID.randomUUID());
+
+        RefreshToken row = store.find(token).orElseThrow();
+        assertThat(row.getTokenHash()).hasSize(64).isNotEqualTo(token);
+        assertThat(store.find(token + "x")).isEmpty();
+    }
+
+    @Test
+    void aTokenCanBeRotatedOnlyOnce() throws Exception {
+        RefreshToken row = store.find(store.issue(UUID.randomUUID(), "GOOGLE", UUID.randomUUID())).orElseThrow();
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> claims = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                claims.add(executor.submit(() -> {
+                    start.await();
+                    return store.markUsed(row);
+                }));
+            }
+            start.countDown();
+            int won = 0;
+            for (Future<Boolean> claim : claims) {
+                won += claim.get() ? 1 : 0;
+            }
+            assertThat(won).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void revokingASessionLeavesOtherSessionsAlone() {
+        UUID userId = UUID.randomUUID();
+        UUID revokedSession = UUID.randomUUID();
+        UUID otherSession = UUID.randomUUID();
+        RefreshToken first = store.find(store.issue(userId, "GOOGLE", revokedSession)).orElseThrow();
+        RefreshToken second = store.find(store.issue(userId, "GOOGLE", revokedSession)).orElseThrow();
+        RefreshToken other = store.find(store.issue(userId, "GOOGLE", otherSession)).orElseThrow();
+
+        store.revokeSession(revokedSession);
+
+        assertThat(store.markUsed(first)).isFalse();
+        assertThat(store.markUsed(second)).isFalse();
+        assertThat(store.markUsed(other)).isTrue();
+    }
+
+    @Test
+    void replayingARotatedTokenRevokesTheWholeSession() {
+        TokenRevocationList revocations = revocationList();
+        TokenServiceImpl tokenService = tokenService(revocations);
+        UUID sessionId = liveSession();
+        String original = store.issue(UUID.randomUUID(), "GOOGLE", sessionId);
+
+        ApiResponse rotated = tokenService.refresh(original);
+        assertThat(rotated.isSuccess()).isTrue();
+        String next = (String) ((Map<?, ?>) rotated.getData()).get("refreshToken");
+        assertThat(next).isNotEqualTo(original);
+
+        // The old token again: someone copied it, so neither token may be used any more
+        assertThat(tokenService.refresh(original).getErrorMessage()).isEqualTo("Refresh token reuse detected");
+        assertThat(tokenService.refresh(next).getErrorMessage()).isEqualTo("Invalid refresh token");
+        assertThat(revocations.isRevoked(null, sessionId.toString())).isTrue();
+    }
+
+    @Test
+    void rotationClaimsTheOldTokenAndStoresTheNewOneInOneTransaction() {
+        TokenServiceImpl tokenService = tokenService(revocationList());
+        String original = store.issue(UUID.randomUUID(), "GOOGLE", liveSession());
+        calls.clear();
+
+        assertThat(tokenService.refresh(original).isSuccess()).isTrue();
+        assertThat(calls).containsExactly("begin", "markUsed in transaction", "save in transaction", "commit");
+    }
+
+    @Test
+    void tokensOfAnEndedSessionOrDeletedUserCannotBeRefreshed() {
+        TokenServiceImpl tokenService = tokenService(revocationList());
+        // Not live: logged out, expired or its user deleted
+        String original = store.issue(UUID.randomUUID(), "GOOGLE", UUID.randomUUID());
+
+        assertThat(tokenService.refresh(original).getErrorMessage()).isEqualTo("Invalid refresh token");
+        assertThat(store.find(original).orElseThrow().isRevoked()).isTrue();
+        assertThat(rows).hasSize(1);
+    }
+
+    private UUID liveSession() {
+        UUID sessionId = UUID.randomUUID();
+        liveSessions.add(sessionId);
+        return sessionId;
+    }
+
+    private TokenRevocationList revocationList() {
+        return new TokenRevocationList(revokedTokenRepo(), new UuidV7Generator(),
+                Duration.ofMinutes(15), Duration.ofSeconds(10), 1 << 16, 4);
+    }
+
+    private TokenServiceImpl tokenService(TokenRevocationList revocations) {
+        JwtService jwtService = new JwtService(new JwtKeyRing(new JwtKeyProperties()), new UuidV7Generator(),
+                revocations, Duration.ofMinutes(15), 1000, Duration.ofMinutes(5));
+        ILoginSessionRepo loginSessionRepo = stub(ILoginSessionRepo.class, (method, args) -> switch (method) {
+            case "isActiveWithProfile" -> liveSessions.contains((UUID) args[0]);
+            default -> throw new UnsupportedOperationException(method);
+        });
+        return new TokenServiceImpl(jwtService, store, revocations, loginSessionRepo, transactionManager());
+    }
+
+    /**
+     * Records transaction boundaries in {@code calls}; nothing is rolled back.
+     */
+    private PlatformTransactionManager transactionManager() {
+        return stub(PlatformTransactionManager.class, (method, args) -> {
+            switch (method) {
+                case "getTransaction" -> {
+                    inTransaction = true;
+                    calls.add("begin");
+                }
+                case "commit", "rollback" -> {
+                    inTransaction = false;
+                    calls.add(method);
+                }
+                default -> throw new UnsupportedOperationException(method);
+            }
+            return new SimpleTransactionStatus();
+        });
+    }
+
+    private IRefreshTokenRepo refreshTokenRepo() {
+        return stub(IRefreshTokenRepo.class, (method, args) -> {
+            if (method.equals("save") || method.equals("markUsed")) {
+                calls.add(method + (inTransaction ? " in transaction" : ""));
+            }
+            return refreshTokens(method, args);
+        });
+    }
+
+    private Object refreshTokens(String method, Object[] args) {
+        return switch (method) {
+            case "save" -> {
+                RefreshToken row = (RefreshToken) args[0];
+                if (row.getId() == null) {
+                    row.setId(UUID.randomUUID());
+                }
+                rows.put(row.getId(), row);
+                yield row;
+            }
+            case "findByTokenHash" -> rows.values().stream()
+                    .filter(row -> row.getTokenHash().equals(args[0]))
+                    .findFirst();
+            case "markUsed" -> {
+                AtomicInteger updated = new AtomicInteger();
+                rows.computeIfPresent((UUID) args[0], (id, row) -> {
+                    if (row.getUsedAt() == null && !row.isRevoked()) {
+                        row.setUsedAt((LocalDateTime) args[1]);
+                        updated.incrementAndGet();
+                    }
+                    return row;
+                });
+                yield updated.get();
+            }
+            case "revokeBySessionId" -> {
+                AtomicInteger updated = new AtomicInteger();
+                rows.replaceAll((id, row) -> {
+                    if (row.getSessionId().equals(args[0]) && !row.isRevoked()) {
+                        row.setRevoked(true);
+                        updated.incrementAndGet();
+                    }
+                    return row;
+                });
+                yield updated.get();
+            }
+            default -> throw new UnsupportedOperationException(method);
+        };
+    }
+
+    private static IRevokedTokenRepo revokedTokenRepo() {
+        return stub(IRevokedTokenRepo.class, (method, args) -> switch (method) {
+            case "insert" -> null;
+            case "findByExpiresAtAfter", "findByRevokedAtAfterOrderByRevokedAt" -> List.of();
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> repoType, Handler handler) {
+        return (T) Proxy.newProxyInstance(repoType.getClassLoader(), new Class<?>[]{repoType},
+                (proxy, method, args) -> handler.handle(method.getName(), args));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+}
@@ -0,0 +1,111 @@
+package com.striker.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ticks of 10 ms starting at 0, so tick {@code n} is {@code n * 10} ms. Level 0
+ * spans 64 ticks, level 1 4096 and level 2 262144.
+ */
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+
+    private final TimingWheel<String, Integer> wheel = new TimingWheel<>(TICK, 0);
+    private final List<String> expired = new ArrayList<>();
+
+    @Test
+    void expiresOnTheTickOfItsDeadline() {
+        wheel.schedule("a", 1, 5 * TICK);
+        wheel.schedule("b", 2, 5 * TICK + 1);
+
+        advanceTo(4);
+        assertThat(expired).isEmpty();
+        advanceTo(5);
+        assertThat(expired).containsExactly("a");
+        advanceTo(6);
+        assertThat(expired).containsExactly("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesFarDeadlinesDownTheLevels() {
+        long level1 = 64 * 3 + 7;
+        long level2 = 4096 * 2 + 64 * 5 + 3;
+        long level3 = 262144 + 11;
+        wheel.schedule("level1", 1, level1 * TICK);
+        wheel.schedule("level2", 2, level2 * TICK);
+        wheel.schedule("level3", 3, level3 * TICK);
+
+        advanceTo(level1 - 1);
+        assertThat(expired).isEmpty();
+        advanceTo(level1);
+        assertThat(expired).containsExactly("level1");
+
+        advanceTo(level2 - 1);
+        assertThat(expired).containsExactly("level1");
+        advanceTo(level2);
+        assertThat(expired).containsExactly("level1", "level2");
+
+        advanceTo(level3 - 1);
+        assertThat(expired).containsExactly("level1", "level2");
+        advanceTo(level3);
+        assertThat(expired).containsExactly("level1", "level2", "level3");
+    }
+
+    @Test
+    void touchPushesTheDeadlineBackWithoutMovingTheEntry() {
+        wheel.schedule("a", 1, 10 * TICK);
+        assertThat(wheel.touch("a", 200 * TICK)).isTrue();
+        assertThat(wheel.touch("missing", 200 * TICK)).isFalse();
+
+        // Still in its old slot at tick 10, re-inserted there rather than expired
+        advanceTo(199);
+        assertThat(expired).isEmpty();
+        advanceTo(200);
+        assertThat(expired).containsExactly("a");
+    }
+
+    @Test
+    void touchedRepeatedlyAcrossLevelBoundaries() {
+        wheel.schedule("a", 1, 50 * TICK);
+        for (long tick = 40; tick < 9000; tick += 40) {
+            advanceTo(tick);
+            wheel.touch("a", (tick + 50) * TICK);
+        }
+        assertThat(expired).isEmpty();
+        advanceTo(9000 - 40 + 50);
+        assertThat(expired).containsExactly("a");
+    }
+
+    @Test
+    void rescheduleReplacesAndCancelRemoves() {
+        wheel.schedule("a", 1, 5 * TICK);
+        wheel.schedule("a", 2, 8 * TICK);
+        wheel.schedule("b", 3, 5 * TICK);
+        wheel.cancel("b");
+
+        List<Integer> values = new ArrayList<>();
+        wheel.advance(20 * TICK, (key, value) -> values.add(value));
+        // The replaced entry left behind in slot 5 is skipped
+        assertThat(values).containsExactly(2);
+        assertThat(wheel.contains("b")).isFalse();
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextTick() {
+        advanceTo(100);
+        wheel.schedule("late", 1, 3 * TICK);
+
+        advanceTo(101);
+        assertThat(expired).containsExactly("late");
+    }
+
+    private void advanceTo(long tick) {
+        wheel.advance(tick * TICK, (key, value) -> expired.add(key));
+    }
+}
@@ -0,0 +1,165 @@
+package com.striker.auth.service;
+
+import com.striker.auth.entity.RevokedToken;
+import com.striker.auth.id.UuidV7Generator;
+import com.striker.auth.repos.IRevokedTokenRepo;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Revocation lists over an in-memory {@code revoked_tokens} table. Rows can be
+ * added with any {@code revoked_at}, standing in for revocations committed on
+ * other nodes.
+ */
+class TokenRevocationListTest {
+
+    private final List<RevokedToken> rows = new CopyOnWriteArrayList<>();
+
+    @Test
+    void revocationsLapseWhenTheTokensTheyCoverExpire() throws Exception {
+        TokenRevocationList revocations = revocationList(Duration.ofMillis(300), Duration.ofSeconds(10));
+        UUID sessionId = UUID.randomUUID();
+
+        revocations.revokeToken("jti-1", Instant.now().plusMillis(300));
+        revocations.revokeSession(sessionId);
+        assertThat(revocations.isRevoked("jti-1", null)).isTrue();
+        assertThat(revocations.isRevoked("jti-2", sessionId.toString())).isTrue();
+        assertThat(revocations.isRevoked("jti-2", UUID.randomUUID().toString())).isFalse();
+        assertThat(rows).hasSize(2);
+
+        Thread.sleep(500);
+        assertThat(revocations.isRevoked("jti-1", null)).isFalse();
+        assertThat(revocations.isRevoked("jti-2", sessionId.toString())).isFalse();
+    }
+
+    @Test
+    void pollReReadsTheOverlapForRowsCommittedOutOfOrder() {
+        TokenRevocationList withOverlap = revocationList(Duration.ofMinutes(15), Duration.ofSeconds(10));
+        TokenRevocationList withoutOverlap = revocationList(Duration.ofMinutes(15), Duration.ZERO);
+        Instant now = Instant.now();
+
+        row("first", now, now.plusSeconds(600));
+        withOverlap.poll();
+        withoutOverlap.poll();
+        // Stamped before "first" but committed after both nodes polled
+        row("late", now.minusSeconds(2), now.plusSeconds(600));
+        withOverlap.poll();
+        withoutOverlap.poll();
+
+        assertThat(withOverlap.isRevoked("first", null)).isTrue();
+        assertThat(withOverlap.isRevoked("late", null)).isTrue();
+        assertThat(withoutOverlap.isRevoked("first", null)).isTrue();
+        assertThat(withoutOverlap.isRevoked("late", null)).isFalse();
+    }
+
+    @Test
+    void startupLoadsOnlyLiveRevocations() {
+        Instant now = Instant.now();
+        row("live", now.minusSeconds(60), now.plusSeconds(600));
+        row("expired", now.minusSeconds(900), now.minusSeconds(1));
+
+        TokenRevocationList revocations = revocationList(Duration.ofMinutes(15), Duration.ofSeconds(10));
+        revocations.run(null);
+
+        assertThat(revocations.isRevoked("live", null)).isTrue();
+        assertThat(revocations.isRevoked("expired", null)).isFalse();
+    }
+
+    @Test
+    void purgeDeletesExpiredRowsAndKeepsLiveRevocations() {
+        Instant now = Instant.now();
+        TokenRevocationList revocations = revocationList(Duration.ofMinutes(15), Duration.ofSeconds(10));
+        revocations.revokeToken("live", now.plusSeconds(600));
+        row("expired", now.minusSeconds(900), now.minusSeconds(1));
+
+        revocations.purge();
+
+        assertThat(rows).extracting(RevokedToken::getRevokedId).containsExactly("live");
+        assertThat(revocations.isRevoked("live", null)).isTrue();
+    }
+
+    @Test
+    void revocationsAddedWhileThePurgeRebuildsTheFilterAreKept() throws Exception {
+        TokenRevocationList revocations = revocationList(Duration.ofMinutes(15), Duration.ofSeconds(10));
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            revoked.add(UUID.randomUUID().toString());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            Future<?> purger = executor.submit(() -> {
+                while (writing.get()) {
+                    revocations.purge();
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (List<String> half : List.of(revoked.subList(0, 2_500), revoked.subList(2_500, 5_000))) {
+                writers.add(executor.submit(() ->
+                        half.forEach(id -> revocations.revokeToken(id, Instant.now().plusSeconds(600)))));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            purger.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(revoked).allMatch(id -> revocations.isRevoked(id, null));
+    }
+
+    private TokenRevocationList revocationList(Duration accessTokenTtl, Duration pollOverlap) {
+        return new TokenRevocationList(revokedTokenRepo(), new UuidV7Generator(),
+                accessTokenTtl, pollOverlap, 1 << 16, 4);
+    }
+
+    private void row(String revokedId, Instant revokedAt, Instant expiresAt) {
+        RevokedToken row = new RevokedToken();
+        row.setId(UUID.randomUUID());
+        row.setRevokedId(revokedId);
+        row.setKind(RevokedToken.TOKEN);
+        row.setRevokedAt(revokedAt);
+        row.setExpiresAt(expiresAt);
+        rows.add(row);
+    }
+
+    private IRevokedTokenRepo revokedTokenRepo() {
+        return (IRevokedTokenRepo) Proxy.newProxyInstance(IRevokedTokenRepo.class.getClassLoader(),
+                new Class<?>[]{IRevokedTokenRepo.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "insert" -> {
+                        row((String) args[1], Instant.now(), (Instant) args[3]);
+                        yield null;
+                    }
+                    case "findByExpiresAtAfter" -> rows.stream()
+                            .filter(row -> row.getExpiresAt().isAfter((Instant) args[0]))
+                            .toList();
+                    case "findByRevokedAtAfterOrderByRevokedAt" -> rows.stream()
+                            .filter(row -> row.getRevokedAt().isAfter((Instant) args[0]))
+                            .sorted(Comparator.comparing(RevokedToken::getRevokedAt))
+                            .toList();
+                    case "deleteExpired" -> {
+                        int before = rows.size();
+                        rows.removeIf(row -> row.getExpiresAt().isBefore((Instant) args[0]));
+                        yield before - rows.size();
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}